@@ -0,0 +1,12 @@
+package org.example.estore.service;
+
+import org.example.estore.model.User;
+
+import java.util.List;
+
+public class ConsoleEmailSender implements EmailSender {
+    @Override public void sendEmailConfirmations(List<User> users) {
+        for (User user : users)
+            System.out.println("email confirmation sent to " + user.getEmail());
+    }
+}
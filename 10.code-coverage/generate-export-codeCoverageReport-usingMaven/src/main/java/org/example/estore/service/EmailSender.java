@@ -0,0 +1,16 @@
+package org.example.estore.service;
+
+import org.example.estore.model.User;
+
+import java.util.List;
+
+public interface EmailSender {
+
+    /**
+     * used to deliver confirmation emails to a batch of users. called from the email confirmation dispatcher thread only.
+     *
+     * @param users the users to send a confirmation email to
+     */
+    void sendEmailConfirmations(List<User> users);
+
+}
@@ -2,9 +2,250 @@ package org.example.estore.service;
 
 import org.example.estore.model.User;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/* Puts email confirmations into a bounded queue and returns straight away, so createUser never waits on email delivery. many threads add to the queue, one
+dispatcher thread takes from it : it waits for a first confirmation, then up to 'lingerMillis' for more, and hands at most 'batchSize' of them to the
+EmailSender at once. what happens when the queue is full is up to the OverflowPolicy. a batch the EmailSender fails on is retried up to
+'maxSendAttempts' times, waiting 'retryBackoffMillis' before the first retry and twice as long before each next one. */
 public class EmailVerificationServiceImpl implements EmailVerificationService {
+
+    private static final Logger LOG = Logger.getLogger(EmailVerificationServiceImpl.class.getName());
+
+    //how often an idle dispatcher checks whether shutdown was called.
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    public enum OverflowPolicy {
+        //wait up to 'offerTimeoutMillis' for room in the queue, then throw EmailNotificationServiceException.
+        BLOCK,
+        //throw EmailNotificationServiceException straight away.
+        REJECT,
+        //drop the confirmation and only count it.
+        DROP
+    }
+
+    private final BlockingQueue<PendingConfirmation> queue;
+    private final EmailSender emailSender;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutMillis;
+    private final int maxSendAttempts;
+    private final long retryBackoffMillis;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    //scheduling holds the read lock from the 'running' check until the confirmation is queued, and shutdown takes the write lock to clear 'running', so
+    //once shutdown has returned from it every accepted confirmation is in the queue, where the dispatcher's final drain finds it.
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public EmailVerificationServiceImpl() {
+        this(new ConsoleEmailSender(), 1024, 50, 100, OverflowPolicy.BLOCK, 1000);
+    }
+
+    public EmailVerificationServiceImpl(EmailSender emailSender, int capacity, int batchSize, long lingerMillis, OverflowPolicy overflowPolicy,
+                                        long offerTimeoutMillis) {
+        this(emailSender, capacity, batchSize, lingerMillis, overflowPolicy, offerTimeoutMillis, 3, 200);
+    }
+
+    public EmailVerificationServiceImpl(EmailSender emailSender, int capacity, int batchSize, long lingerMillis, OverflowPolicy overflowPolicy,
+                                        long offerTimeoutMillis, int maxSendAttempts, long retryBackoffMillis) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.emailSender = emailSender;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxSendAttempts = Math.max(maxSendAttempts, 1);
+        this.retryBackoffMillis = retryBackoffMillis;
+
+        this.dispatcher = new Thread(this::dispatch, "email-confirmation-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
     @Override public void scheduleEmailConfirmation(User user) {
-        //put user details into email queue.
-        System.out.println("scheduleEmailConfirmation method called!");
+        boolean queued;
+        runningLock.readLock().lock();
+        try {
+            if (!running)
+                throw new EmailNotificationServiceException("Email confirmations are no longer accepted");
+
+            PendingConfirmation confirmation = new PendingConfirmation(user, System.nanoTime());
+            queued = overflowPolicy == OverflowPolicy.BLOCK
+                    ? queue.offer(confirmation, offerTimeoutMillis, TimeUnit.MILLISECONDS)
+                    : queue.offer(confirmation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmailNotificationServiceException("Interrupted while scheduling email confirmation");
+        } finally {
+            runningLock.readLock().unlock();
+        }
+
+        if (queued) {
+            scheduled.increment();
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            dropped.increment();
+            return;
+        }
+
+        rejected.increment();
+        throw new EmailNotificationServiceException("Email confirmation queue is full");
+    }
+
+    /* stops accepting confirmations, and waits for the ones already queued to be handed to the EmailSender. the dispatcher is not interrupted, so a batch
+    that is being sent is not cut short : it notices within IDLE_POLL_MILLIS (or once its current batch is sent) and then drains the queue. */
+    public void shutdown() throws InterruptedException {
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        dispatcher.join();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    //time from scheduleEmailConfirmation until the EmailSender returned, averaged over the confirmations sent so far.
+    public long getAverageLatencyMillis() {
+        long count = sent.sum() + failed.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.sum() / count);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    private void dispatch() {
+        List<PendingConfirmation> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingConfirmation first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+
+                batch.add(first);
+                long lingerUntil = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0)
+                        continue;
+
+                    PendingConfirmation next = queue.poll(lingerUntil - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                //nothing interrupts the dispatcher (shutdown only clears 'running'), so send what was taken and carry on.
+            }
+
+            send(batch);
+        }
+
+        while (queue.drainTo(batch, batchSize) > 0)
+            send(batch);
+    }
+
+    private void send(List<PendingConfirmation> batch) {
+        if (batch.isEmpty())
+            return;
+
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingConfirmation confirmation : batch)
+            users.add(confirmation.user);
+
+        boolean delivered = false;
+        long backoffMillis = retryBackoffMillis;
+        for (int attempt = 1; !delivered; attempt++) {
+            try {
+                emailSender.sendEmailConfirmations(users);
+                delivered = true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxSendAttempts) {
+                    LOG.log(Level.SEVERE, "Giving up on a batch of " + users.size() + " email confirmations after " + attempt + " attempts", e);
+                    break;
+                }
+
+                LOG.log(Level.WARNING, "Sending a batch of " + users.size() + " email confirmations failed (attempt " + attempt + " of " + maxSendAttempts
+                        + "), retrying in " + backoffMillis + "ms", e);
+                if (!sleep(backoffMillis))
+                    break;
+                backoffMillis *= 2;
+            }
+        }
+
+        long now = System.nanoTime();
+        for (PendingConfirmation confirmation : batch) {
+            long latencyNanos = now - confirmation.enqueuedNanos;
+            totalLatencyNanos.add(latencyNanos);
+            maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        }
+        (delivered ? sent : failed).add(batch.size());
+
+        batch.clear();
+    }
+
+    //returns false if the wait was interrupted. like in dispatch, the interrupt is not kept, or every later poll of the queue would fail straight away.
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static final class PendingConfirmation {
+        private final User user;
+        private final long enqueuedNanos;
+
+        private PendingConfirmation(User user, long enqueuedNanos) {
+            this.user = user;
+            this.enqueuedNanos = enqueuedNanos;
+        }
     }
 }
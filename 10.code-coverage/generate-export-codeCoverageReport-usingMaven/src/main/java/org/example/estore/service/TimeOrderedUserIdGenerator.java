@@ -0,0 +1,38 @@
+package org.example.estore.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/* Version 7 UUIDs : 48 bits of unix time in milliseconds, a 12 bit counter, then 62 random bits. ids generated one after another sort one after another, so
+they are appended to an index on the user id instead of being scattered over it. the timestamp and counter come from one AtomicLong (no lock), and the
+random bits from ThreadLocalRandom instead of the shared SecureRandom behind UUID.randomUUID(). the clock can be passed in, so tests control the time. */
+public class TimeOrderedUserIdGenerator implements UserIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+    private final LongSupplier clock;
+
+    public TimeOrderedUserIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedUserIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override public String generateUserId() {
+        long timestampAndCounter = lastTimestampAndCounter.updateAndGet(last -> Math.max(clock.getAsLong() << COUNTER_BITS, last + 1));
+
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16  //unix_ts_ms
+                | 0x7000L                                                  //version 7
+                | (timestampAndCounter & COUNTER_MASK);                    //rand_a, used as the counter
+        long leastSigBits = ThreadLocalRandom.current().nextLong() >>> 2 //rand_b
+                | 0x8000000000000000L;                                   //variant 2
+
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
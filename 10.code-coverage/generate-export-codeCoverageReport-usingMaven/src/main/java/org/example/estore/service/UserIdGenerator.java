@@ -0,0 +1,12 @@
+package org.example.estore.service;
+
+public interface UserIdGenerator {
+
+    /**
+     * used to generate the id of a new user.
+     *
+     * @return the new user id
+     */
+    String generateUserId();
+
+}
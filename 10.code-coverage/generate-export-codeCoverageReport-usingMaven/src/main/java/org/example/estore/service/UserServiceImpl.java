@@ -3,16 +3,20 @@ package org.example.estore.service;
 import org.example.estore.data.UsersRepository;
 import org.example.estore.model.User;
 
-import java.util.UUID;
-
 public class UserServiceImpl implements UserService {
 
     UsersRepository usersRepository;
     EmailVerificationService emailVerificationService;
+    UserIdGenerator userIdGenerator;
 
     public UserServiceImpl(UsersRepository usersRepository, EmailVerificationService emailVerificationService) {
+        this(usersRepository, emailVerificationService, new TimeOrderedUserIdGenerator());
+    }
+
+    public UserServiceImpl(UsersRepository usersRepository, EmailVerificationService emailVerificationService, UserIdGenerator userIdGenerator) {
         this.usersRepository = usersRepository;
         this.emailVerificationService = emailVerificationService;
+        this.userIdGenerator = userIdGenerator;
     }
 
     @Override public User createUser(String firstName, String lastName, String email, String password, String repeatPassword) {
@@ -25,7 +29,7 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("User's last name is empty");
         }
 
-        User user = new User(firstName, lastName, email, UUID.randomUUID().toString());
+        User user = new User(firstName, lastName, email, userIdGenerator.generateUserId());
 
         boolean isUserCreated;
         try {
@@ -0,0 +1,197 @@
+package org.example.estore.service;
+
+import org.example.estore.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmailVerificationServiceImplTest {
+
+    private final List<List<User>> sentBatches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch senderReleased = new CountDownLatch(1);
+    private EmailVerificationServiceImpl emailVerificationService;
+
+    @AfterEach void tearDown() throws InterruptedException {
+        senderReleased.countDown();
+        emailVerificationService.shutdown();
+    }
+
+    @DisplayName("Email confirmations are sent in batches") @Test void testScheduleEmailConfirmation_whenManyScheduled_sendsThemInBatches() throws InterruptedException {
+        //Arrange
+        emailVerificationService = new EmailVerificationServiceImpl(users -> sentBatches.add(new ArrayList<>(users)), 100, 3, 50,
+                EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0);
+
+        //Act
+        for (int i = 0; i < 7; i++)
+            emailVerificationService.scheduleEmailConfirmation(user(i));
+        emailVerificationService.shutdown();
+
+        //Assert
+        assertEquals(7, emailVerificationService.getSentCount(), "every scheduled confirmation should be sent");
+        assertEquals(7, sentBatches.stream().mapToInt(List::size).sum(), "every scheduled confirmation should reach the sender");
+        assertTrue(sentBatches.stream().allMatch(batch -> batch.size() <= 3), "no batch should be larger than the batch size, got " + sentBatches);
+        assertTrue(sentBatches.size() < 7, "confirmations should be batched, got " + sentBatches);
+        assertEquals(0, emailVerificationService.getQueueDepth(), "queue should be empty");
+    }
+
+    @DisplayName("Full queue rejects email confirmations") @Test void testScheduleEmailConfirmation_whenQueueFullAndRejectPolicy_throwsEmailNotificationServiceException() {
+        //Arrange : the sender blocks, so the dispatcher holds the first confirmation and the next two fill the queue.
+        emailVerificationService = new EmailVerificationServiceImpl(users -> awaitRelease(), 2, 1, 0, EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0);
+        fillQueue();
+
+        //Act & Assert
+        assertThrows(EmailNotificationServiceException.class, () -> emailVerificationService.scheduleEmailConfirmation(user(99)),
+                "full queue should reject the confirmation");
+        assertEquals(1, emailVerificationService.getRejectedCount(), "rejected confirmation should be counted");
+    }
+
+    @DisplayName("Full queue drops email confirmations") @Test void testScheduleEmailConfirmation_whenQueueFullAndDropPolicy_dropsConfirmation() {
+        //Arrange
+        emailVerificationService = new EmailVerificationServiceImpl(users -> awaitRelease(), 2, 1, 0, EmailVerificationServiceImpl.OverflowPolicy.DROP, 0);
+        fillQueue();
+
+        //Act
+        emailVerificationService.scheduleEmailConfirmation(user(99));
+
+        //Assert
+        assertEquals(1, emailVerificationService.getDroppedCount(), "dropped confirmation should be counted");
+        assertEquals(2, emailVerificationService.getQueueDepth(), "queue should stay at its capacity");
+    }
+
+    @DisplayName("Full queue makes the caller wait, then gives up") @Test void testScheduleEmailConfirmation_whenQueueFullAndBlockPolicy_waitsThenThrows() {
+        //Arrange
+        emailVerificationService = new EmailVerificationServiceImpl(users -> awaitRelease(), 2, 1, 0, EmailVerificationServiceImpl.OverflowPolicy.BLOCK, 100);
+        fillQueue();
+        long start = System.nanoTime();
+
+        //Act & Assert
+        assertThrows(EmailNotificationServiceException.class, () -> emailVerificationService.scheduleEmailConfirmation(user(99)),
+                "confirmation should be rejected once the wait is over");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100, "caller should have waited for room in the queue");
+    }
+
+    @DisplayName("Failed batch is retried") @Test void testScheduleEmailConfirmation_whenSenderFailsOnce_retriesBatch() throws InterruptedException {
+        //Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        emailVerificationService = new EmailVerificationServiceImpl(users -> {
+            if (attempts.incrementAndGet() == 1)
+                throw new IllegalStateException("mail server unavailable");
+            sentBatches.add(new ArrayList<>(users));
+        }, 100, 10, 0, EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0, 3, 10);
+
+        //Act
+        emailVerificationService.scheduleEmailConfirmation(user(0));
+        emailVerificationService.shutdown();
+
+        //Assert
+        assertEquals(2, attempts.get(), "failed batch should have been sent a second time");
+        assertEquals(1, emailVerificationService.getSentCount(), "retried confirmation should count as sent");
+        assertEquals(0, emailVerificationService.getFailedCount(), "retried confirmation should not count as failed");
+    }
+
+    @DisplayName("Batch that keeps failing is given up after the last attempt") @Test void testScheduleEmailConfirmation_whenSenderKeepsFailing_countsFailed()
+            throws InterruptedException {
+        //Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        emailVerificationService = new EmailVerificationServiceImpl(users -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("mail server unavailable");
+        }, 100, 10, 0, EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0, 3, 10);
+
+        //Act
+        emailVerificationService.scheduleEmailConfirmation(user(0));
+        emailVerificationService.shutdown();
+
+        //Assert
+        assertEquals(3, attempts.get(), "batch should have been tried maxSendAttempts times");
+        assertEquals(1, emailVerificationService.getFailedCount(), "given up confirmation should count as failed");
+        assertEquals(0, emailVerificationService.getSentCount(), "given up confirmation should not count as sent");
+    }
+
+    @DisplayName("Shutdown lets a batch that is being sent finish") @Test void testShutdown_whenBatchBeingSent_doesNotInterruptSender() throws InterruptedException {
+        //Arrange
+        CountDownLatch sending = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        emailVerificationService = new EmailVerificationServiceImpl(users -> {
+            sending.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            sentBatches.add(new ArrayList<>(users));
+        }, 100, 10, 0, EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0);
+        emailVerificationService.scheduleEmailConfirmation(user(0));
+        assertTrue(sending.await(5, TimeUnit.SECONDS), "sender should have been called");
+
+        //Act
+        emailVerificationService.shutdown();
+
+        //Assert
+        assertFalse(interrupted.get(), "sender should not have been interrupted");
+        assertEquals(1, emailVerificationService.getSentCount(), "batch being sent should be sent");
+    }
+
+    @DisplayName("Every confirmation accepted while shutting down is sent") @Test void testShutdown_whenScheduledConcurrently_sendsEveryScheduledConfirmation()
+            throws InterruptedException {
+        //Arrange : the callers schedule until confirmations are no longer accepted; the queue never fills up with DROP, so only shutdown stops them.
+        emailVerificationService = new EmailVerificationServiceImpl(users -> { }, 1000, 50, 0, EmailVerificationServiceImpl.OverflowPolicy.DROP, 0);
+        int callers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch started = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    for (int j = 0; ; j++)
+                        emailVerificationService.scheduleEmailConfirmation(user(j));
+                } catch (EmailNotificationServiceException e) {
+                    //shut down
+                }
+            });
+        }
+        started.await();
+
+        //Act
+        emailVerificationService.shutdown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS), "callers should stop once confirmations are no longer accepted");
+
+        //Assert
+        assertTrue(emailVerificationService.getScheduledCount() > 0, "some confirmations should have been scheduled");
+        assertEquals(emailVerificationService.getScheduledCount(), emailVerificationService.getSentCount(), "every scheduled confirmation should be sent");
+        assertEquals(0, emailVerificationService.getQueueDepth(), "queue should be empty");
+    }
+
+    private void fillQueue() {
+        emailVerificationService.scheduleEmailConfirmation(user(0));
+        while (emailVerificationService.getQueueDepth() > 0)
+            Thread.onSpinWait();
+        emailVerificationService.scheduleEmailConfirmation(user(1));
+        emailVerificationService.scheduleEmailConfirmation(user(2));
+    }
+
+    private void awaitRelease() {
+        try {
+            senderReleased.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static User user(int i) {
+        return new User("kalana", "sandakelum", "kalana" + i + "@gmail.com", String.valueOf(i));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.estore.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeOrderedUserIdGeneratorTest {
+
+    @DisplayName("User ids are version 7 UUIDs carrying the current time") @Test void testGenerateUserId_whenCalled_returnsVersion7UuidWithTimestamp() {
+        //Arrange
+        long now = 1_700_000_000_000L;
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> now);
+
+        //Act
+        UUID userId = UUID.fromString(userIdGenerator.generateUserId());
+
+        //Assert
+        assertEquals(7, userId.version(), "user id should be a version 7 UUID");
+        assertEquals(2, userId.variant(), "user id should use the RFC 4122 variant");
+        assertEquals(now, userId.getMostSignificantBits() >>> 16, "user id should start with the unix time in milliseconds");
+    }
+
+    @DisplayName("User ids generated within one millisecond keep increasing") @Test void testGenerateUserId_whenClockDoesNotMove_returnsIncreasingUserIds() {
+        //Arrange : more ids than the 12 bit counter holds, all in the same millisecond.
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> 1_700_000_000_000L);
+        List<String> userIds = new ArrayList<>();
+
+        //Act
+        for (int i = 0; i < 10_000; i++)
+            userIds.add(userIdGenerator.generateUserId());
+
+        //Assert
+        List<String> sorted = new ArrayList<>(userIds);
+        Collections.sort(sorted);
+        assertEquals(sorted, userIds, "user ids should already be in string order");
+        assertEquals(userIds.size(), Set.copyOf(userIds).size(), "user ids should be unique");
+    }
+
+    @DisplayName("User ids do not go back when the clock does") @Test void testGenerateUserId_whenClockGoesBack_returnsIncreasingUserIds() {
+        //Arrange
+        long[] now = { 1_700_000_000_000L };
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> now[0]);
+
+        //Act
+        String before = userIdGenerator.generateUserId();
+        now[0] -= 1000;
+        String after = userIdGenerator.generateUserId();
+
+        //Assert
+        assertTrue(after.compareTo(before) > 0, "user id generated after the clock went back should still sort last");
+    }
+}
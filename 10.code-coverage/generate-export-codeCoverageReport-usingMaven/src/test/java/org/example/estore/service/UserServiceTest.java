@@ -8,8 +8,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.UUID;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -54,6 +57,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
     @Mock UsersRepository usersRepository;
     @Mock EmailVerificationServiceImpl emailVerificationService;
+    @Spy TimeOrderedUserIdGenerator userIdGenerator;
     @InjectMocks UserServiceImpl userService;
     String firstName;
     String lastName;
@@ -116,6 +120,20 @@ import static org.junit.jupiter.api.Assertions.*;
         verify(usersRepository, times(1)).save(any(User.class));
     }
 
+    @DisplayName("User id is time ordered") @Test void testCreateUser_whenUserCreated_shouldHaveTimeOrderedId() {
+        // Arrange
+        when(usersRepository.save(any(User.class))).thenReturn(true);
+
+        //Act
+        User firstUser = userService.createUser(firstName, lastName, email, password, repeatPassword);
+        User secondUser = userService.createUser(firstName, lastName, email, password, repeatPassword);
+
+        //Assert
+        assertEquals(7, UUID.fromString(firstUser.getId()).version(), "User id should be a version 7 UUID");
+        assertTrue(secondUser.getId().compareTo(firstUser.getId()) > 0, "User ids should increase in creation order");
+        verify(userIdGenerator, times(2)).generateUserId();
+    }
+
     @DisplayName("If save() method cause RuntimeException, a UserServiceException is thrown") @Test void testCreateUser_whenSaveMethodThrowsException_shouldThrowsUserServiceException() {
 
         // Arrange:
@@ -162,16 +180,20 @@ import static org.junit.jupiter.api.Assertions.*;
         verify(emailVerificationService, times(1)).scheduleEmailConfirmation(any(User.class));
     }
 
-    @DisplayName("Schedule Email Confirmation is executed") @Test void testCreateUser_whenUserCreated_scheduleEmailConfirmation() {
-        // Arrange
+    @DisplayName("Schedule Email Confirmation is executed") @Test void testCreateUser_whenUserCreated_scheduleEmailConfirmation() throws InterruptedException {
+        // Arrange : a mock has no queue behind it, so the real method runs on a real, queue-backed instance.
         when(usersRepository.save(any(User.class))).thenReturn(true);
-        doCallRealMethod().when(emailVerificationService).scheduleEmailConfirmation(any(User.class));
+        EmailVerificationServiceImpl realEmailVerificationService = new EmailVerificationServiceImpl(users -> {}, 10, 10, 0,
+                EmailVerificationServiceImpl.OverflowPolicy.REJECT, 0);
+        UserServiceImpl userService = new UserServiceImpl(usersRepository, realEmailVerificationService, userIdGenerator);
 
         //Act
         userService.createUser(firstName, lastName, email, password, repeatPassword);
+        realEmailVerificationService.shutdown();
 
         //Assert
-        verify(emailVerificationService, times(1)).scheduleEmailConfirmation(any(User.class));
+        assertEquals(1, realEmailVerificationService.getScheduledCount(), "email confirmation should have been scheduled once");
+        assertEquals(1, realEmailVerificationService.getSentCount(), "email confirmation should have been sent");
     }
 
 }
@@ -0,0 +1,19 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/* Jackson reads and writes bean properties (UserRest on GET /users, UserDetailsRequestModel on POST /users) through reflection. the blackbird module swaps
+those reflective getter, setter and constructor calls for lambdas generated with LambdaMetafactory, which the JIT can inline. it only changes how properties
+are accessed, so the JSON is byte for byte the same (see JsonConfigurationTest). spring boot registers every Module bean with the ObjectMapper behind the MVC
+message converters. JsonSerializationBenchmark shows the gain is in binding request bodies : writing UserRest lists is dominated by the generator itself. */
+@Configuration
+public class JsonConfiguration {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
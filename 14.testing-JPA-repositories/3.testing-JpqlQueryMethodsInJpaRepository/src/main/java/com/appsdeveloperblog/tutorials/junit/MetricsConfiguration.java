@@ -0,0 +1,27 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/* Where a GET /users or /users/login request spends its time, scraped from /actuator/prometheus by the metrics scraper (see WebSecurity) :
+ - http.server.requests : every UsersController method (tagged with uri and method), recorded by spring boot's web metrics filter.
+ - users.security.filter : AuthenticationFilter and AuthorizationFilter, recorded by the filters themselves (see WebSecurity.filterTimer).
+ - users.security.login.throttle : login attempts LoginRateLimiter allowed or rejected (tagged with key email or client and outcome), next to the
+   users.security.login.throttle.buckets gauge.
+ - executor.* (tagged name=passwordEncoder) and users.security.password.encoder.rejected : BoundedPasswordEncoder's queue depth, busy threads, completed
+   and rejected password checks, bound by the encoder itself as a MeterBinder.
+ - cache.gets, cache.size, cache.evictions : VerifiedTokenCache and UserLookupCache hits and misses (tagged cache=verifiedTokens, usersByEmail and
+   usersByUserId), bound by CaffeineCacheMetrics.
+ - users.service : every UsersServiceImpl method, recorded by the TimedAspect below from its @Timed annotation.
+ - spring.data.repository.invocations : every UsersRepository query, recorded by spring boot's repository metrics.
+all of them publish percentile histograms, see management.metrics.distribution.percentiles-histogram in application.properties. */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
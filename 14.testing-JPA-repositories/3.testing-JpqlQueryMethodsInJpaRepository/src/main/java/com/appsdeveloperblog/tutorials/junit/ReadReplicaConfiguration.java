@@ -0,0 +1,38 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import com.appsdeveloperblog.tutorials.junit.io.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Opt-in (users.datasource.replica-urls=<jdbc url>[,<jdbc url>...]) : the spring.datasource.* database becomes the primary, which takes every write, and
+read-only transactions go to the replicas (see ReadWriteRoutingDataSource). the replicas use the primary's driver, username and password, and each gets its
+own connection pool. spring boot's own DataSource backs off because this one is declared. */
+@Configuration
+@ConditionalOnProperty(name = "users.datasource.replica-urls")
+public class ReadReplicaConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, @Value("${users.datasource.replica-urls}") String[] replicaUrls) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.length);
+        for (String replicaUrl : replicaUrls) {
+            replicas.add(properties.initializeDataSourceBuilder()
+                    .url(replicaUrl.trim())
+                    .build());
+        }
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replicas);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -1,6 +1,8 @@
 package com.appsdeveloperblog.tutorials.junit;
 
+import com.appsdeveloperblog.tutorials.junit.security.BoundedPasswordEncoder;
 import com.appsdeveloperblog.tutorials.junit.shared.SpringApplicationContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -14,8 +16,10 @@ public class UsersServiceSpringBootApplication {
 	}
 
 	@Bean
-	public BCryptPasswordEncoder bCryptPasswordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BoundedPasswordEncoder passwordEncoder(@Value("${users.security.bcrypt.strength:10}") int strength,
+												  @Value("${users.security.bcrypt.threads:0}") int threads,
+												  @Value("${users.security.bcrypt.queue-capacity:64}") int queueCapacity) {
+		return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity);
 	}
 
 	@Bean
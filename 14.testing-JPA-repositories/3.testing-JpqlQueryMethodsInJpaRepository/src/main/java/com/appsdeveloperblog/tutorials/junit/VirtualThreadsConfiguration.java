@@ -0,0 +1,34 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* Opt-in (users.virtual-threads.enabled=true) : Tomcat hands every request to its own virtual thread instead of to its fixed pool of platform threads, so a
+request blocked on JDBC in UsersServiceImpl no longer holds on to one of a few hundred threads. needs Java 21, see the 'virtual-threads' maven profile. the
+executor is looked up reflectively so the rest of the application still builds and runs on Java 11. */
+@Configuration
+@ConditionalOnProperty(name = "users.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadsExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("users.virtual-threads.enabled needs Java 21 or newer, running on Java " + Runtime.version().feature(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create the virtual threads executor", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer(ExecutorService virtualThreadsExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadsExecutor);
+    }
+}
@@ -0,0 +1,20 @@
+package com.appsdeveloperblog.tutorials.junit.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class LoginThrottledException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    //thrown for every request of a credential-stuffing burst, so it skips filling in a stack trace nobody reads.
+    public LoginThrottledException(String message, long retryAfterSeconds)
+    {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
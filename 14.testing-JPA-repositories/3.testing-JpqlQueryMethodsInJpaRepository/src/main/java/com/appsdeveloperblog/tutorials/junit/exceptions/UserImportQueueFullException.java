@@ -0,0 +1,12 @@
+package com.appsdeveloperblog.tutorials.junit.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UserImportQueueFullException extends RuntimeException{
+    public UserImportQueueFullException(String message)
+    {
+        super(message);
+    }
+}
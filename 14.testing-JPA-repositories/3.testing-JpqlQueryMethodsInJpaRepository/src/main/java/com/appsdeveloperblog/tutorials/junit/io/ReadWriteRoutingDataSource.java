@@ -0,0 +1,58 @@
+package com.appsdeveloperblog.tutorials.junit.io;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/* Sends read-only transactions (@Transactional(readOnly = true), which UsersRepository uses for all its queries) to the replica DataSources, taking turns
+between them, and everything else to the primary. the transaction is only known to be read-only once it has begun, so this must sit behind a
+LazyConnectionDataSourceProxy, which fetches the real connection on the first statement (see ReadReplicaConfiguration).
+
+code that must see its own recent writes, which a lagging replica may not have yet, runs its reads inside readFromPrimary. */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final String[] replicaKeys;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+
+        replicaKeys = new String[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = "replica-" + i;
+            targetDataSources.put(replicaKeys[i], replicas.get(i));
+        }
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        if (PRIMARY_REQUIRED.get() != null)
+            return reads.get();
+
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    @Override protected Object determineCurrentLookupKey() {
+        if (replicaKeys.length == 0 || PRIMARY_REQUIRED.get() != null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return PRIMARY;
+
+        return replicaKeys[Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.length)];
+    }
+}
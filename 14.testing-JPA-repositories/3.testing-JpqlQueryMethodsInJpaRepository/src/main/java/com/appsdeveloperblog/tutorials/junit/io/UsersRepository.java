@@ -1,22 +1,74 @@
 package com.appsdeveloperblog.tutorials.junit.io;
 
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/* the queries run in read-only transactions, like the reads inherited from SimpleJpaRepository, so with ReadReplicaConfiguration they are served by a
+replica. the marker is put on each query rather than on the interface, where it would also make save and the other inherited writes read-only. */
 @Repository
-public interface UsersRepository extends PagingAndSortingRepository<UserEntity, Long> {
+public interface UsersRepository extends JpaRepository<UserEntity, Long> {
+    @Transactional(readOnly = true)
     UserEntity findByEmail(String email);
 
+    @Transactional(readOnly = true)
     UserEntity findByUserId(String email);
 
-    UserEntity findByEmailEndingWith(String email);
+    //finds the user with an email in the given domain ('@test.com' or 'test.com'). like the derived query it replaces, it fails if there is more than one.
+    default UserEntity findByEmailEndingWith(String email) {
+        return findOneByEmailDomain(UserEntity.emailDomainOf(email));
+    }
+
+    @Transactional(readOnly = true)
+    UserEntity findOneByEmailDomain(String emailDomain);
+
+    @Transactional(readOnly = true)
+    List<UserEntity> findAllByEmailDomain(String emailDomain);
+
+    /* finds users with an email in the given domain ('@test.com' or 'test.com'). this used to be a JPQL query method matching 'user.email like %:emailDomain',
+    which scans the whole users table; it now looks the normalized domain up on the indexed emailDomain column. */
+    default List<UserEntity> findUsersWithEmailEndsWith(String emailDomain) {
+        return findAllByEmailDomain(UserEntity.emailDomainOf(emailDomain));
+    }
+
+    /* the listing read path (GET /users) : only the public columns are selected, straight into UserDto. the password hash is never read, and no managed
+    UserEntity (nor its dirty-checking snapshot) is created per row. findUserDtosBy pages by offset without the 'select count(*)' of findAll(Pageable) : the
+    slice reads limit + 1 rows to find out whether there is a next page. */
+    @Transactional(readOnly = true)
+    @Query("select new com.appsdeveloperblog.tutorials.junit.shared.UserDto(user.id, user.userId, user.firstName, user.lastName, user.email) " +
+            "from UserEntity user order by user.id")
+    Slice<UserDto> findUserDtosBy(Pageable pageable);
+
+    //keyset pagination : seeks past the last seen id on the primary key index, and because it returns a List, no count query is run.
+    @Transactional(readOnly = true)
+    @Query("select new com.appsdeveloperblog.tutorials.junit.shared.UserDto(user.id, user.userId, user.firstName, user.lastName, user.email) " +
+            "from UserEntity user where user.id > :id order by user.id")
+    List<UserDto> findUserDtosByIdGreaterThan(@Param("id") long id, Pageable pageable);
+
+    //returns those of the given emails that are already in use. it is checked right before inserting, so it reads the primary rather than a replica.
+    @Transactional
+    @Query("select user.email from UserEntity user where user.email in :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
 
-    /* JPQL Query methods :  these methods uses the query defined above it. and because these methods has a query defined above it, the method name does not need to follow the
-    pattern that we used to create query methods. and we can give these methods any name we like.*/
-    @Query("select user from UserEntity user where user.email like %:emailDomain")
-    List<UserEntity> findUsersWithEmailEndsWith(@Param("emailDomain") String emailDomain);
+    /* reads all users through a database cursor, 'fetch size' rows at a time, instead of loading them into a List. must be called inside a transaction and
+    the stream must be closed when done. */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("select user from UserEntity user order by user.id")
+    Stream<UserEntity> streamAllBy();
 }
@@ -1,55 +1,85 @@
 package com.appsdeveloperblog.tutorials.junit.security;
 
-import com.appsdeveloperblog.tutorials.junit.service.UsersService;
-import com.appsdeveloperblog.tutorials.junit.shared.SpringApplicationContext;
-import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.exceptions.LoginThrottledException;
+import com.appsdeveloperblog.tutorials.junit.exceptions.PasswordEncoderSaturatedException;
 import com.appsdeveloperblog.tutorials.junit.ui.request.UserLoginRequestModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.util.StreamUtils;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.Map;
 
 public class AuthenticationFilter extends UsernamePasswordAuthenticationFilter {
+
+    //ObjectReader is immutable and thread-safe, so one instance binds every login body. fields other than email and password are ignored.
+    private static final ObjectReader LOGIN_READER = new ObjectMapper()
+            .readerFor(UserLoginRequestModel.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
     private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final int maxRequestBytes;
+    private final Timer attemptAuthenticationTimer;
+    private final Timer successfulAuthenticationTimer;
 
-    public AuthenticationFilter(AuthenticationManager authenticationManager) {
+    public AuthenticationFilter(AuthenticationManager authenticationManager, TokenService tokenService, LoginRateLimiter loginRateLimiter, int maxRequestBytes,
+                                MeterRegistry meterRegistry) {
         this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.maxRequestBytes = maxRequestBytes;
+        this.attemptAuthenticationTimer = WebSecurity.filterTimer(meterRegistry, AuthenticationFilter.class, "attemptAuthentication");
+        this.successfulAuthenticationTimer = WebSecurity.filterTimer(meterRegistry, AuthenticationFilter.class, "successfulAuthentication");
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest req,
                                                 HttpServletResponse res) throws AuthenticationException {
+        Timer.Sample sample = Timer.start();
         try {
-            byte[] inputStreamBytes = StreamUtils.copyToByteArray(req.getInputStream());
-            Map<String, String> jsonRequest = new ObjectMapper().readValue(inputStreamBytes, Map.class);
+            //throttled clients are turned away before their body is even read, throttled emails before the user is looked up.
+            loginRateLimiter.acquireForClient(req.getRemoteAddr());
 
-//            UserLoginRequestModel creds = new ObjectMapper()
-//                    .readValue(jsonRequest.get("body"), UserLoginRequestModel.class);
+            //the body is bound while it is read, and reading stops once it is larger than any login can be (whether or not Content-Length says so).
+            if (req.getContentLengthLong() > maxRequestBytes)
+                throw new LoginRequestTooLargeException(maxRequestBytes);
+
+            UserLoginRequestModel creds = LOGIN_READER.readValue(new LimitedInputStream(req.getInputStream(), maxRequestBytes));
+            loginRateLimiter.acquireForEmail(creds.getEmail());
 
             return authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
-                            jsonRequest.get("email"),
-                            jsonRequest.get("password"),
+                            creds.getEmail(),
+                            creds.getPassword(),
                             new ArrayList<>())
             );
 
+        } catch (PasswordEncoderSaturatedException | LoginThrottledException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new AuthenticationServiceException("Invalid login request", e);
+        } finally {
+            sample.stop(attemptAuthenticationTimer);
         }
     }
 
@@ -58,20 +88,90 @@ public class AuthenticationFilter extends UsernamePasswordAuthenticationFilter {
                                             HttpServletResponse res,
                                             FilterChain chain,
                                             Authentication auth) throws IOException, ServletException {
+        Timer.Sample sample = Timer.start();
+        try {
+            UserPrincipal userPrincipal = (UserPrincipal) auth.getPrincipal();
+            String userName = userPrincipal.getUsername();
+
+            String token = tokenService.issueToken(userName);
+
+            res.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+            res.addHeader("UserID", userPrincipal.getUserId());
+        } finally {
+            sample.stop(successfulAuthenticationTimer);
+        }
+    }
+
+    /* a saturated password encoder or a throttled login is not a bad credential, so tell the client to back off instead of answering 401. a login body that is too large or
+    is not JSON is not a bad credential either : it gets 413 or 400. */
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest req,
+                                              HttpServletResponse res,
+                                              AuthenticationException failed) throws IOException, ServletException {
+        if (failed.getCause() instanceof PasswordEncoderSaturatedException) {
+            SecurityContextHolder.clearContext();
+            res.setHeader("Retry-After", "1");
+            res.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), failed.getMessage());
+            return;
+        }
+
+        if (failed.getCause() instanceof LoginThrottledException) {
+            SecurityContextHolder.clearContext();
+            res.setHeader("Retry-After", String.valueOf(((LoginThrottledException) failed.getCause()).getRetryAfterSeconds()));
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
 
-        String userName = ((UserDetails) auth.getPrincipal()).getUsername();
+        if (failed.getCause() instanceof LoginRequestTooLargeException) {
+            SecurityContextHolder.clearContext();
+            res.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
 
-        String token = Jwts.builder()
-                .setSubject(userName)
-                .setExpiration(new Date(System.currentTimeMillis() + (long) 864000000))
-                .signWith(SignatureAlgorithm.HS512, SecurityConstants.TOKEN_SECRET)
-                .compact();
-        UsersService userService = (UsersService) SpringApplicationContext.getBean("usersService");
-        UserDto userDto = userService.getUser(userName);
+        if (failed.getCause() instanceof JsonProcessingException) {
+            SecurityContextHolder.clearContext();
+            res.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
 
-        res.addHeader(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
-        res.addHeader("UserID", userDto.getUserId());
+        super.unsuccessfulAuthentication(req, res, failed);
+    }
 
+    private static class LoginRequestTooLargeException extends IOException {
+        LoginRequestTooLargeException(int maxRequestBytes) {
+            super("Login request is larger than " + maxRequestBytes + " bytes");
+        }
     }
 
-}
\ No newline at end of file
+    //fails the read once more than maxBytes have been read, so a huge (or endless) body is never buffered.
+    private static class LimitedInputStream extends FilterInputStream {
+        private final int maxBytes;
+        private int remaining;
+
+        LimitedInputStream(InputStream in, int maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+            this.remaining = maxBytes;
+        }
+
+        @Override public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count(1);
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, Math.min(len, remaining + 1));
+            if (read > 0)
+                count(read);
+            return read;
+        }
+
+        private void count(int read) throws IOException {
+            remaining -= read;
+            if (remaining < 0)
+                throw new LoginRequestTooLargeException(maxBytes);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.appsdeveloperblog.tutorials.junit.security;
 
 import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
 import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,11 +19,20 @@ import java.io.IOException;
 public class AuthorizationFilter extends BasicAuthenticationFilter {
 
     UsersRepository userRepository;
+    VerifiedTokenCache verifiedTokenCache;
+    TokenService tokenService;
+    private final Timer doFilterInternalTimer;
 
     public AuthorizationFilter(AuthenticationManager authManager,
-                               UsersRepository userRepository) {
+                               UsersRepository userRepository,
+                               VerifiedTokenCache verifiedTokenCache,
+                               TokenService tokenService,
+                               MeterRegistry meterRegistry) {
         super(authManager);
         this.userRepository = userRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenService = tokenService;
+        this.doFilterInternalTimer = WebSecurity.filterTimer(meterRegistry, AuthorizationFilter.class, "doFilterInternal");
     }
 
     @Override
@@ -36,7 +47,15 @@ public class AuthorizationFilter extends BasicAuthenticationFilter {
             return;
         }
 
-        UsernamePasswordAuthenticationToken authentication = getAuthentication(req);
+        //only the token check is timed, the rest of the chain (the controller) is timed by http.server.requests.
+        Timer.Sample sample = Timer.start();
+        UsernamePasswordAuthenticationToken authentication;
+        try {
+            authentication = getAuthentication(req);
+        } finally {
+            sample.stop(doFilterInternalTimer);
+        }
+
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(req, res);
     }
@@ -48,11 +67,15 @@ public class AuthorizationFilter extends BasicAuthenticationFilter {
 
             token = token.replace(SecurityConstants.TOKEN_PREFIX, "");
 
-            String user = Jwts.parser()
-                    .setSigningKey( SecurityConstants.TOKEN_SECRET)
-                    .parseClaimsJws( token )
-                    .getBody()
-                    .getSubject();
+            String user = verifiedTokenCache.getSubject(token);
+
+            if (user == null) {
+                Claims claims = tokenService.parseClaims(token);
+                user = claims.getSubject();
+
+                if (user != null && claims.getExpiration() != null)
+                    verifiedTokenCache.put(token, user, claims.getExpiration().getTime());
+            }
 
             if (user != null) {
                 return new UsernamePasswordAuthenticationToken(user, null, null);
@@ -0,0 +1,155 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.PasswordEncoderSaturatedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Runs password hashing and verification on its own size-limited thread pool instead of on the request thread's share of the CPU. a burst of logins or
+signups can therefore only keep 'threads' cores busy with BCrypt, and once 'queueCapacity' more requests are waiting, new ones are rejected straight away with
+a PasswordEncoderSaturatedException rather than queueing up behind them. as a MeterBinder bean it is bound to the MeterRegistry by spring boot : the pool is
+published as the executor.* meters tagged name=passwordEncoder (queued, active, completed, queue.remaining), and rejections as
+users.security.password.encoder.rejected. */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private static final long SATURATED_BACKOFF_MS = 20;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-encoder-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    /* encodes the passwords side by side on the pool and returns their hashes in the same order, for bulk callers such as the user import. at most two
+    passwords per thread are handed to the pool at a time, which keeps every thread busy without filling the queue that logins and signups wait in. a
+    password the saturated pool turns away is tried again after a short back-off instead of failing the whole call. */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int maxInFlight = 2 * executor.getMaximumPoolSize();
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (int i = 0; i < rawPasswords.size(); i++) {
+            if (i >= maxInFlight)
+                await(hashes.get(i - maxInFlight));
+
+            CharSequence rawPassword = rawPasswords.get(i);
+            hashes.add(submitWhenFree(() -> delegate.encode(rawPassword)));
+        }
+
+        List<String> encodedPasswords = new ArrayList<>(hashes.size());
+        for (Future<String> hash : hashes)
+            encodedPasswords.add(await(hash));
+        return encodedPasswords;
+    }
+
+    @Override public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "passwordEncoder", Tags.empty()).bindTo(registry);
+        FunctionCounter.builder("users.security.password.encoder.rejected", rejected, LongAdder::sum)
+                .description("Password checks rejected because the encoder's threads and queue were all busy")
+                .register(registry);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        return await(submitOrReject(task));
+    }
+
+    private <T> Future<T> submitOrReject(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordEncoderSaturatedException("Too many password checks in progress, try again later");
+        }
+    }
+
+    private <T> Future<T> submitWhenFree(Callable<T> task) {
+        while (true) {
+            try {
+                return submitOrReject(task);
+            } catch (PasswordEncoderSaturatedException e) {
+                try {
+                    Thread.sleep(SATURATED_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(interrupted);
+                }
+            }
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/* Admission control for POST /users/login : every client address and every email gets a token bucket, and a login attempt that finds either bucket empty is
+rejected with a LoginThrottledException before its body is bound, the user is looked up or BCrypt runs. a credential-stuffing burst therefore costs a map
+lookup and a compare-and-set per request instead of a password check.
+
+each bucket is a single AtomicLong holding the time at which it will be full again (the 'theoretical arrival time' of the generic cell rate algorithm), so
+taking a token is one compare-and-set and never blocks. the buckets are spread over 'stripes' maps by the hash of their key, and each map holds at most
+maxKeys / stripes buckets : once one is full, buckets that have refilled completely (and so behave exactly like a missing one) are dropped, and if that is
+not enough, arbitrary ones are. a full stripe is only scanned by the threads whose keys hash to it.
+
+the client address is HttpServletRequest.getRemoteAddr(), so behind a proxy set server.forward-headers-strategy for it to be the real client. */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final Buckets emailBuckets;
+    private final Buckets clientBuckets;
+
+    @Autowired public LoginRateLimiter(@Value("${users.security.login-throttle.enabled:true}") boolean enabled,
+                                       @Value("${users.security.login-throttle.email.capacity:10}") int emailCapacity,
+                                       @Value("${users.security.login-throttle.email.refill-per-minute:10}") int emailRefillPerMinute,
+                                       @Value("${users.security.login-throttle.client.capacity:50}") int clientCapacity,
+                                       @Value("${users.security.login-throttle.client.refill-per-minute:300}") int clientRefillPerMinute,
+                                       @Value("${users.security.login-throttle.max-keys:100000}") int maxKeys,
+                                       @Value("${users.security.login-throttle.stripes:64}") int stripes,
+                                       MeterRegistry meterRegistry) {
+        this(enabled, emailCapacity, emailRefillPerMinute, clientCapacity, clientRefillPerMinute, maxKeys, stripes, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, int emailCapacity, int emailRefillPerMinute, int clientCapacity, int clientRefillPerMinute, int maxKeys, int stripes,
+                     MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.emailBuckets = new Buckets("email", emailCapacity, emailRefillPerMinute, maxKeys, stripes, meterRegistry, nanoClock);
+        this.clientBuckets = new Buckets("client", clientCapacity, clientRefillPerMinute, maxKeys, stripes, meterRegistry, nanoClock);
+    }
+
+    public void acquireForClient(String clientAddress) {
+        if (enabled && clientAddress != null)
+            clientBuckets.acquire(clientAddress);
+    }
+
+    public void acquireForEmail(String email) {
+        if (enabled && email != null)
+            emailBuckets.acquire(email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public int size() {
+        return emailBuckets.size() + clientBuckets.size();
+    }
+
+    private static final class Buckets {
+        private final long capacityNanos;
+        private final long intervalNanos;
+        private final int maxKeysPerStripe;
+        private final Map<String, AtomicLong>[] stripes;
+        private final LongSupplier nanoClock;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        @SuppressWarnings("unchecked")
+        Buckets(String keyType, int capacity, int refillPerMinute, int maxKeys, int stripeCount, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(refillPerMinute, 1);
+            this.capacityNanos = intervalNanos * Math.max(capacity, 1);
+            this.nanoClock = nanoClock;
+
+            //a power of two, so a stripe is picked with a mask.
+            int count = Integer.highestOneBit(Math.max(stripeCount, 1));
+            this.maxKeysPerStripe = Math.max(maxKeys / count, 1);
+            this.stripes = new Map[count];
+            for (int i = 0; i < count; i++)
+                stripes[i] = new ConcurrentHashMap<>();
+
+            this.allowed = Counter.builder("users.security.login.throttle").tag("key", keyType).tag("outcome", "allowed").register(meterRegistry);
+            this.rejected = Counter.builder("users.security.login.throttle").tag("key", keyType).tag("outcome", "rejected").register(meterRegistry);
+            Gauge.builder("users.security.login.throttle.buckets", this, Buckets::size).tag("key", keyType).register(meterRegistry);
+        }
+
+        void acquire(String key) {
+            long now = nanoClock.getAsLong();
+            AtomicLong bucket = bucket(key, now);
+
+            while (true) {
+                long fullAt = bucket.get();
+                long nextFullAt = Math.max(fullAt, now) + intervalNanos;
+                long overdraft = nextFullAt - now - capacityNanos;
+
+                if (overdraft > 0) {
+                    rejected.increment();
+                    throw new LoginThrottledException("Too many login attempts, try again later", Math.max(TimeUnit.NANOSECONDS.toSeconds(overdraft), 1));
+                }
+
+                if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                    allowed.increment();
+                    return;
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Map<String, AtomicLong> stripe : stripes)
+                size += stripe.size();
+            return size;
+        }
+
+        private AtomicLong bucket(String key, long now) {
+            Map<String, AtomicLong> stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+            AtomicLong bucket = stripe.get(key);
+            if (bucket != null)
+                return bucket;
+
+            if (stripe.size() >= maxKeysPerStripe)
+                evict(stripe, now);
+
+            //a bucket that is full 'now' is the same as a bucket that was never used.
+            AtomicLong existing = stripe.putIfAbsent(key, bucket = new AtomicLong(now));
+            return existing != null ? existing : bucket;
+        }
+
+        /* drop buckets that have refilled first, and if the stripe is still full, make room by dropping arbitrary ones. an eighth of the stripe is freed at
+        once, so a flood of new keys does not scan the whole stripe for every one of them. */
+        private void evict(Map<String, AtomicLong> stripe, long now) {
+            stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+
+            int target = maxKeysPerStripe - Math.max(maxKeysPerStripe / 8, 1);
+            Iterator<String> keys = stripe.keySet().iterator();
+            while (stripe.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        //the low bits of String.hashCode are weak for similar keys (like email addresses), so mix the high bits in before masking.
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
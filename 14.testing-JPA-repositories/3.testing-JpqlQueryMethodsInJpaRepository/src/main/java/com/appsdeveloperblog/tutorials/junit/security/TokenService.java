@@ -0,0 +1,89 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/* Issues the JWTs handed out on login and parses them back for AuthorizationFilter. the signing key is decoded from the secret once, the encoded header
+(which only depends on the algorithm) is built once, and initialized Macs are reused from a pool, so issuing a token only writes the payload, encodes it
+and signs it instead of going through a new Jwts.builder, its claims map and JSON serializer. tokens are standard HMAC signed JWS, the same as jjwt issues.
+the pool is not tied to threads (unlike a ThreadLocal, whose Mac would be rebuilt for every request on virtual threads) and grows to the number of logins
+signing at the same time. */
+@Component
+public class TokenService {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final SignatureAlgorithm algorithm;
+    private final SecretKeySpec signingKey;
+    private final long expirationMillis;
+    private final String encodedHeader;
+    private final Queue<Mac> idleMacs = new ConcurrentLinkedQueue<>();
+
+    public TokenService(@Value("${users.security.token.secret:" + SecurityConstants.TOKEN_SECRET + "}") String base64EncodedSecret,
+                        @Value("${users.security.token.algorithm:HS512}") String algorithm,
+                        @Value("${users.security.token.expiration-ms:864000000}") long expirationMillis) {
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+        if (!this.algorithm.isHmac())
+            throw new IllegalArgumentException("users.security.token.algorithm must be an HMAC algorithm (HS256, HS384 or HS512), not " + algorithm);
+
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(base64EncodedSecret), this.algorithm.getJcaName());
+        this.expirationMillis = expirationMillis;
+        this.encodedHeader = BASE64URL.encodeToString(("{\"alg\":\"" + this.algorithm.getValue() + "\"}").getBytes(StandardCharsets.UTF_8)) + '.';
+
+        idleMacs.offer(newMac()); //fail on startup rather than on the first login if the JVM cannot provide the algorithm.
+    }
+
+    //returns a signed token for the subject that expires users.security.token.expiration-ms from now.
+    public String issueToken(String subject) {
+        long expiresAtSeconds = (System.currentTimeMillis() + expirationMillis) / 1000;
+
+        StringBuilder payload = new StringBuilder(subject.length() + 40).append("{\"sub\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(subject, payload);
+        payload.append("\",\"exp\":").append(expiresAtSeconds).append('}');
+
+        String unsignedToken = encodedHeader + BASE64URL.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+        //doFinal resets the Mac, so it goes back to the pool ready for the next token (a Mac that failed is dropped).
+        Mac mac = idleMacs.poll();
+        if (mac == null)
+            mac = newMac();
+        byte[] signature = mac.doFinal(unsignedToken.getBytes(StandardCharsets.US_ASCII));
+        idleMacs.offer(mac);
+
+        return unsignedToken + '.' + BASE64URL.encodeToString(signature);
+    }
+
+    //verifies the token's signature and expiry and returns its claims. throws a JwtException if the token is not valid.
+    public Claims parseClaims(String token) {
+        return Jwts.parser()
+                .setSigningKey(signingKey)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(algorithm.getJcaName());
+            mac.init(signingKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not initialize " + algorithm.getJcaName(), e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/* Remembers JWTs whose signature AuthorizationFilter has already verified, so a client that sends the same token again does not pay for parsing and HMAC
+verification a second time. entries are keyed by a SHA-256 hash of the token, hold the token subject and expire when the token's 'exp' claim passes. the
+cache is bounded by caffeine's size-based eviction, and its hits, misses, size and evictions are published as the cache.* meters tagged cache=verifiedTokens. */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Entry> entries;
+
+    public VerifiedTokenCache(@Value("${users.security.token-cache.max-size:10000}") int maxSize, MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(entry.expiresAt - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "verifiedTokens");
+    }
+
+    //returns the cached subject of the token, or null if the token has not been verified yet or has expired.
+    public String getSubject(String token) {
+        Entry entry = entries.getIfPresent(hash(token));
+        return entry == null ? null : entry.subject;
+    }
+
+    public void put(String token, String subject, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis())
+            return;
+
+        entries.put(hash(token), new Entry(subject, expiresAt));
+    }
+
+    public long getHitCount() {
+        return entries.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return entries.stats().missCount();
+    }
+
+    //runs caffeine's pending evictions first, so the size reflects expired and evicted entries.
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final String subject;
+        private final long expiresAt;
+
+        private Entry(String subject, long expiresAt) {
+            this.subject = subject;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
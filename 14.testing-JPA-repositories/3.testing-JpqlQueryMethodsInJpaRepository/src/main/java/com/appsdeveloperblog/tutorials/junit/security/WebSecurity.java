@@ -1,22 +1,81 @@
 package com.appsdeveloperblog.tutorials.junit.security;
 
 import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 @EnableWebSecurity
 public class WebSecurity {
 
+    static final String METRICS_SCRAPER_ROLE = "METRICS_SCRAPER";
+
     @Autowired
     UsersRepository usersRepository;
 
+    @Autowired
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${users.security.login.max-request-bytes:4096}")
+    int maxLoginRequestBytes;
+
+    @Value("${users.metrics.scraper.username:prometheus}")
+    String metricsScraperUsername;
+
+    @Value("${users.metrics.scraper.password:}")
+    String metricsScraperPassword;
+
+    /* the actuator endpoints are not behind the JWT filters : health is public, everything else (the prometheus scrape) needs HTTP basic credentials of the
+    metrics scraper, which prometheus sends with its basic_auth scrape setting. without a configured users.metrics.scraper.password nobody can scrape. */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain configureActuator(HttpSecurity http) throws Exception {
+        http
+                .requestMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf().disable().authorizeRequests()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class))
+                .permitAll()
+                .anyRequest().hasRole(METRICS_SCRAPER_ROLE).and()
+                .httpBasic().authenticationEntryPoint(WebSecurity::challengeMetricsScraper).and()
+                .exceptionHandling().authenticationEntryPoint(WebSecurity::challengeMetricsScraper).and()
+                .authenticationManager(getMetricsScraperAuthenticationManager())
+                .sessionManagement()
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain configure(HttpSecurity http) throws Exception {
 
@@ -36,7 +95,7 @@ public class WebSecurity {
                 .permitAll()
                 .anyRequest().authenticated().and()
                 .addFilter(getAuthenticationFilter(authenticationManager))
-                .addFilter(new AuthorizationFilter(authenticationManager, usersRepository))
+                .addFilter(new AuthorizationFilter(authenticationManager, usersRepository, verifiedTokenCache, tokenService, meterRegistry))
                 .authenticationManager(authenticationManager)
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
@@ -47,9 +106,40 @@ public class WebSecurity {
     }
 
     protected AuthenticationFilter getAuthenticationFilter(AuthenticationManager authenticationManager) throws Exception {
-        final AuthenticationFilter filter = new AuthenticationFilter(authenticationManager);
+        final AuthenticationFilter filter = new AuthenticationFilter(authenticationManager, tokenService, loginRateLimiter, maxLoginRequestBytes, meterRegistry);
         filter.setFilterProcessesUrl("/users/login");
         return filter;
     }
 
+    //answered here rather than with sendError, whose /error dispatch would be judged by the JWT filter chain and turned into a 403.
+    private static void challengeMetricsScraper(HttpServletRequest req, HttpServletResponse res, AuthenticationException e) {
+        res.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"metrics\"");
+        res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    //the scraper's password is a machine secret rather than a user's, so a low bcrypt cost is enough and keeps every scrape cheap.
+    protected AuthenticationManager getMetricsScraperAuthenticationManager() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+        if (!metricsScraperPassword.isEmpty())
+            scrapers.createUser(User.withUsername(metricsScraperUsername)
+                    .password(passwordEncoder.encode(metricsScraperPassword))
+                    .roles(METRICS_SCRAPER_ROLE)
+                    .build());
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(scrapers);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
+    }
+
+    /* the security filters are not spring beans, so @Timed cannot reach them : they record their own timers, named users.security.filter and tagged with the
+    filter class and method. the percentile histogram is switched on by the management.metrics.distribution properties. */
+    static Timer filterTimer(MeterRegistry meterRegistry, Class<?> filterClass, String method) {
+        return Timer.builder("users.security.filter")
+                .tag("class", filterClass.getSimpleName())
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/* Remembers the emails of users created in the last 'window' (users.datasource.read-your-writes-window), so UsersServiceImpl can look them up on the primary
+instead of on a replica that may not have them yet. without it, a login right after signing up could be turned away as an unknown email (and that answer
+would then be cached by UserLookupCache). the window should be longer than the replicas usually lag behind; 0 switches the guard off. */
+@Component
+public class ReadYourWritesGuard {
+
+    private final Cache<String, Boolean> recentlyWrittenEmails;
+    private final boolean enabled;
+
+    public ReadYourWritesGuard(@Value("${users.datasource.read-your-writes-window:5s}") Duration window,
+                               @Value("${users.datasource.read-your-writes-max-size:10000}") long maxSize) {
+        this.enabled = !window.isZero() && !window.isNegative();
+        this.recentlyWrittenEmails = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(enabled ? window : Duration.ofMillis(1))
+                .build();
+    }
+
+    public void recordWrite(String email) {
+        if (enabled && email != null)
+            recentlyWrittenEmails.put(email, Boolean.TRUE);
+    }
+
+    public boolean isRecentlyWritten(String email) {
+        return enabled && email != null && recentlyWrittenEmails.getIfPresent(email) != null;
+    }
+}
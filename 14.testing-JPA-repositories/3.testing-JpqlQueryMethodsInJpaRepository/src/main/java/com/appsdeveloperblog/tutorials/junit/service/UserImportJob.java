@@ -0,0 +1,96 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Progress of one bulk user import. the counters are updated by the import thread and can be read at any time from the status resource.
+public class UserImportJob {
+
+    public enum Format { NDJSON, CSV }
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String jobId;
+    private final Format format;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+
+    public UserImportJob(String jobId, Format format) {
+        this.jobId = jobId;
+        this.format = format;
+    }
+
+    void started() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+    }
+
+    void completed() {
+        finishedAt = System.currentTimeMillis();
+        state = State.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finishedAt = System.currentTimeMillis();
+        state = State.FAILED;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsImported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    //imported rows per second since the job started, up to now or to the moment it finished.
+    public double getRowsPerSecond() {
+        if (startedAt == 0)
+            return 0;
+
+        long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+        long elapsedMillis = Math.max(1, end - startedAt);
+        return rowsImported.get() * 1000.0 / elapsedMillis;
+    }
+
+    //when the job completed or failed, or 0 while it has not finished.
+    long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+    public Format getFormat() {
+        return format;
+    }
+    public State getState() {
+        return state;
+    }
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,9 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    UserImportJob startImport(InputStream users, UserImportJob.Format format) throws IOException;
+    UserImportJob getImportJob(String jobId);
+}
@@ -0,0 +1,358 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.UserImportQueueFullException;
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import com.appsdeveloperblog.tutorials.junit.security.BoundedPasswordEncoder;
+import com.appsdeveloperblog.tutorials.junit.shared.UserIdGenerator;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/* Imports users in bulk from NDJSON (one UserDetailsRequestModel JSON object per line) or CSV (a firstName,lastName,email,password header line followed by
+one user per line). the upload is spooled to a temporary file while it is received, then imported in the background : rows are validated, emails already in
+use are looked up with one query per batch, each batch's passwords are hashed side by side on the password encoder's users.security.bcrypt.threads threads,
+and each batch is inserted in its own transaction so hibernate can send the inserts as one JDBC batch. one import
+runs at a time and at most 'queueCapacity' more wait for it (each with its upload spooled to disk) : further uploads are turned away with a
+UserImportQueueFullException (503) before they are spooled. */
+@Service("userImportService")
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final ObjectReader USER_READER = new ObjectMapper().readerFor(UserDetailsRequestModel.class);
+    private static final int MAX_FINISHED_JOBS = 100;
+    //the entity manager is not behind a repository proxy, so its exceptions are translated here the way spring data translates a repository's.
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    private final UsersRepository usersRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final UserLookupCache userLookupCache;
+    private final UserIdGenerator userIdGenerator;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Map<String, UserImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired public UserImportServiceImpl(UsersRepository usersRepository,
+                                            BoundedPasswordEncoder passwordEncoder,
+                                            Validator validator,
+                                            UserLookupCache userLookupCache,
+                                            UserIdGenerator userIdGenerator,
+                                            ReadYourWritesGuard readYourWritesGuard,
+                                            PlatformTransactionManager transactionManager,
+                                            @Value("${users.import.batch-size:50}") int batchSize,
+                                            @Value("${users.import.queue-capacity:4}") int queueCapacity) {
+        this.usersRepository = usersRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.userLookupCache = userLookupCache;
+        this.userIdGenerator = userIdGenerator;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), runnable -> {
+            Thread thread = new Thread(runnable, "user-import");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override public UserImportJob startImport(InputStream users, UserImportJob.Format format) throws IOException {
+        //checked before the upload is spooled, so a full queue does not cost a temporary file. the submit below is what actually enforces the bound.
+        if (executor.getQueue().remainingCapacity() == 0)
+            throw queueFull();
+
+        Path file = Files.createTempFile("user-import-", "." + format.name().toLowerCase());
+        try {
+            Files.copy(users, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        UserImportJob job = new UserImportJob(UUID.randomUUID().toString(), format);
+        removeFinishedJobs();
+        jobs.put(job.getJobId(), job);
+        try {
+            executor.execute(() -> runImport(job, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            Files.deleteIfExists(file);
+            throw queueFull();
+        }
+
+        return job;
+    }
+
+    @Override public UserImportJob getImportJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runImport(UserImportJob job, Path file) {
+        job.started();
+        try (RowReader rows = openRows(file, job.getFormat())) {
+            List<UserDetailsRequestModel> batch = new ArrayList<>(batchSize);
+            UserDetailsRequestModel row;
+
+            while ((row = rows.next()) != null) {
+                job.rowRead();
+                if (!validator.validate(row).isEmpty() || row.getEmail() == null || row.getPassword() == null) {
+                    job.rowRejected();
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(job, batch);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty())
+                importBatch(job, batch);
+
+            job.completed();
+        } catch (Exception e) {
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // the temporary file is left for the OS to clean up.
+            }
+        }
+    }
+
+    private void importBatch(UserImportJob job, List<UserDetailsRequestModel> batch) {
+        Set<String> emails = batch.stream().map(UserDetailsRequestModel::getEmail).collect(Collectors.toSet());
+        Set<String> takenEmails = new HashSet<>(usersRepository.findEmailsIn(emails));
+
+        List<UserEntity> userEntities = new ArrayList<>(batch.size());
+        List<String> passwords = new ArrayList<>(batch.size());
+        for (UserDetailsRequestModel row : batch) {
+            if (!takenEmails.add(row.getEmail())) {
+                job.rowRejected();
+                continue;
+            }
+
+            UserEntity userEntity = new UserEntity();
+            userEntity.setUserId(userIdGenerator.generateUserId());
+            userEntity.setFirstName(row.getFirstName());
+            userEntity.setLastName(row.getLastName());
+            userEntity.setEmail(row.getEmail());
+            userEntities.add(userEntity);
+            passwords.add(row.getPassword());
+        }
+
+        /* the batch's passwords are hashed side by side on the password encoder's threads, and before the transaction is opened, so a database connection is
+        not held while BCrypt runs. the import shares the encoder with logins and signups, so when it is saturated the import waits instead of failing rows. */
+        List<String> encodedPasswords = passwordEncoder.encodeAll(passwords);
+        for (int i = 0; i < userEntities.size(); i++)
+            userEntities.get(i).setEncryptedPassword(encodedPasswords.get(i));
+
+        List<UserEntity> insertedEntities;
+        try {
+            insertBatch(userEntities);
+            insertedEntities = userEntities;
+        } catch (DataIntegrityViolationException e) {
+            //a signup took one of these emails after findEmailsIn looked : the batch was rolled back, so insert it again row by row to reject just that row.
+            insertedEntities = insertRowByRow(job, userEntities);
+        }
+
+        //the lookup cache may remember these emails as unknown, and the replicas may not have these users yet.
+        for (UserEntity userEntity : insertedEntities) {
+            readYourWritesGuard.recordWrite(userEntity.getEmail());
+            userLookupCache.invalidateEmailAfterCommit(userEntity.getEmail());
+        }
+
+        job.rowsImported(insertedEntities.size());
+    }
+
+    private void insertBatch(List<UserEntity> userEntities) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (UserEntity userEntity : userEntities)
+                    entityManager.persist(userEntity);
+
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (PersistenceException e) {
+            DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private List<UserEntity> insertRowByRow(UserImportJob job, List<UserEntity> userEntities) {
+        List<UserEntity> insertedEntities = new ArrayList<>(userEntities.size());
+        for (UserEntity userEntity : userEntities) {
+            //the rolled back persist left a sequence id behind, which would make hibernate treat the entity as detached.
+            userEntity.setId(0);
+            try {
+                insertBatch(List.of(userEntity));
+                insertedEntities.add(userEntity);
+            } catch (DataIntegrityViolationException e) {
+                if (!UsersServiceImpl.isEmailUniqueConstraintViolation(e))
+                    throw e;
+                job.rowRejected();
+            }
+        }
+
+        return insertedEntities;
+    }
+
+    private static UserImportQueueFullException queueFull() {
+        return new UserImportQueueFullException("Too many user imports in progress, try again later");
+    }
+
+    //keeps the MAX_FINISHED_JOBS most recently finished jobs, so a client still polling a job that has just finished finds it.
+    private void removeFinishedJobs() {
+        List<UserImportJob> finishedJobs = jobs.values().stream()
+                .filter(UserImportJob::isFinished)
+                .sorted(Comparator.comparingLong(UserImportJob::getFinishedAt))
+                .collect(Collectors.toList());
+        for (int i = 0; i < finishedJobs.size() - MAX_FINISHED_JOBS; i++)
+            jobs.remove(finishedJobs.get(i).getJobId());
+    }
+
+    private static RowReader openRows(Path file, UserImportJob.Format format) throws IOException {
+        if (format == UserImportJob.Format.CSV)
+            return new CsvRowReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+
+        MappingIterator<UserDetailsRequestModel> iterator = USER_READER.readValues(Files.newInputStream(file));
+        return new RowReader() {
+            @Override public UserDetailsRequestModel next() throws IOException {
+                return iterator.hasNextValue() ? iterator.nextValue() : null;
+            }
+
+            @Override public void close() throws IOException {
+                iterator.close();
+            }
+        };
+    }
+
+    private interface RowReader extends Closeable {
+        //returns null once there are no more rows.
+        UserDetailsRequestModel next() throws IOException;
+    }
+
+    private static class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override public UserDetailsRequestModel next() throws IOException {
+            if (header == null) {
+                String headerLine = reader.readLine();
+                if (headerLine == null)
+                    return null;
+                header = parseLine(headerLine);
+            }
+
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null)
+                    return null;
+            } while (line.isBlank());
+
+            List<String> values = parseLine(line);
+            UserDetailsRequestModel row = new UserDetailsRequestModel();
+            row.setFirstName(value(values, "firstName"));
+            row.setLastName(value(values, "lastName"));
+            row.setEmail(value(values, "email"));
+            row.setPassword(value(values, "password"));
+
+            return row;
+        }
+
+        @Override public void close() throws IOException {
+            reader.close();
+        }
+
+        private String value(List<String> values, String column) {
+            int index = header.indexOf(column);
+            return index >= 0 && index < values.size() ? values.get(index) : null;
+        }
+
+        //splits one CSV line, honouring double-quoted values with "" as an escaped quote.
+        private static List<String> parseLine(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString().trim());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString().trim());
+
+            return values;
+        }
+    }
+}
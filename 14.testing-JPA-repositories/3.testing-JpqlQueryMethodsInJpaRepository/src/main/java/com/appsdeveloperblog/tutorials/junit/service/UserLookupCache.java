@@ -0,0 +1,120 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/* Bounded, expiring in-process cache of users in front of UsersRepository.findByEmail and findByUserId. users are cached by email and by userId; emails
+that do not belong to any user are cached too (as an empty Optional, for a shorter time), so repeated logins with an unknown email do not reach the database
+either. whoever creates users must call invalidateEmailAfterCommit for their emails, otherwise a cached 'unknown email' would hide the new user. both caches
+publish their hits, misses, size and evictions as the cache.* meters, tagged cache=usersByEmail and cache=usersByUserId. */
+@Component
+public class UserLookupCache {
+
+    private final Cache<String, Optional<UserDto>> usersByEmail;
+    private final Cache<String, Optional<UserDto>> usersByUserId;
+
+    public UserLookupCache(@Value("${users.cache.max-size:10000}") long maxSize,
+                           @Value("${users.cache.ttl:10m}") Duration ttl,
+                           @Value("${users.cache.negative-ttl:30s}") Duration negativeTtl,
+                           MeterRegistry meterRegistry) {
+        this.usersByEmail = newCache(maxSize, ttl, negativeTtl);
+        this.usersByUserId = newCache(maxSize, ttl, negativeTtl);
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "usersByEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUserId, "usersByUserId");
+    }
+
+    public Optional<UserDto> getByEmail(String email, Function<String, UserDto> loader) {
+        return get(usersByEmail, email, loader);
+    }
+
+    public Optional<UserDto> getByUserId(String userId, Function<String, UserDto> loader) {
+        return get(usersByUserId, userId, loader);
+    }
+
+    public void invalidateEmail(String email) {
+        Optional<UserDto> cachedUser = usersByEmail.asMap().remove(email);
+        if (cachedUser != null)
+            cachedUser.ifPresent(user -> usersByUserId.invalidate(user.getUserId()));
+    }
+
+    /* a lookup running while the new user's transaction is still open does not see the user yet, and would cache it as unknown again right after an
+    immediate invalidation. so inside a transaction the email is invalidated once the transaction has committed, outside of one straight away. */
+    public void invalidateEmailAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateEmail(email);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override public void afterCommit() {
+                invalidateEmail(email);
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        usersByEmail.invalidateAll();
+        usersByUserId.invalidateAll();
+    }
+
+    public CacheStats getEmailCacheStats() {
+        return usersByEmail.stats();
+    }
+
+    public CacheStats getUserIdCacheStats() {
+        return usersByUserId.stats();
+    }
+
+    //callers get their own copy, so changing a returned UserDto never changes the cached one.
+    private static Optional<UserDto> get(Cache<String, Optional<UserDto>> cache, String key, Function<String, UserDto> loader) {
+        if (key == null)
+            return Optional.empty();
+
+        return cache.get(key, k -> Optional.ofNullable(loader.apply(k))).map(UserLookupCache::copy);
+    }
+
+    private static UserDto copy(UserDto user) {
+        UserDto returnValue = new UserDto();
+        returnValue.setId(user.getId());
+        returnValue.setUserId(user.getUserId());
+        returnValue.setFirstName(user.getFirstName());
+        returnValue.setLastName(user.getLastName());
+        returnValue.setEmail(user.getEmail());
+        returnValue.setEncryptedPassword(user.getEncryptedPassword());
+
+        return returnValue;
+    }
+
+    private static Cache<String, Optional<UserDto>> newCache(long maxSize, Duration ttl, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<UserDto>>() {
+                    @Override public long expireAfterCreate(String key, Optional<UserDto> user, long currentTime) {
+                        return (user.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override public long expireAfterUpdate(String key, Optional<UserDto> user, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, user, currentTime);
+                    }
+
+                    @Override public long expireAfterRead(String key, Optional<UserDto> user, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+}
@@ -4,9 +4,14 @@ import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UsersService extends UserDetailsService {
     UserDto createUser(UserDto user);
     List<UserDto> getUsers(int page, int limit);
+    List<UserDto> getUsersAfter(long lastId, int limit);
+    long getUsersCount();
+    void exportUsers(Consumer<UserDto> consumer);
     UserDto getUser(String email);
+    UserDto getUserByUserId(String userId);
 }
@@ -1,94 +1,172 @@
 package com.appsdeveloperblog.tutorials.junit.service;
 
 import com.appsdeveloperblog.tutorials.junit.exceptions.UsersServiceException;
+import com.appsdeveloperblog.tutorials.junit.io.ReadWriteRoutingDataSource;
 import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
 import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import com.appsdeveloperblog.tutorials.junit.security.UserPrincipal;
 import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
-import org.springframework.beans.BeanUtils;
+import com.appsdeveloperblog.tutorials.junit.shared.UserIdGenerator;
+import com.appsdeveloperblog.tutorials.junit.shared.UserMapper;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.lang.reflect.Type;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+//every public method is timed as users.service (tagged with class, method and exception) by the TimedAspect in MetricsConfiguration.
+@Timed("users.service")
 @Service("usersService") public class UsersServiceImpl implements UsersService {
 
     private UsersRepository usersRepository;
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
-
-    @Autowired public UsersServiceImpl(UsersRepository usersRepository, BCryptPasswordEncoder bCryptPasswordEncoder) {
+    private PasswordEncoder passwordEncoder;
+    private UserLookupCache userLookupCache;
+    private UserIdGenerator userIdGenerator;
+    private ReadYourWritesGuard readYourWritesGuard;
+    private UserMapper userMapper = UserMapper.INSTANCE;
+
+    //the total number of users is only counted when a client asks for it, and then reused for this long.
+    @Value("${users.count-cache.ttl-ms:30000}")
+    private long usersCountTtlMillis;
+    private volatile CachedCount cachedUsersCount;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired public UsersServiceImpl(UsersRepository usersRepository, PasswordEncoder passwordEncoder, UserLookupCache userLookupCache,
+                                       UserIdGenerator userIdGenerator, ReadYourWritesGuard readYourWritesGuard) {
         this.usersRepository = usersRepository;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordEncoder = passwordEncoder;
+        this.userLookupCache = userLookupCache;
+        this.userIdGenerator = userIdGenerator;
+        this.readYourWritesGuard = readYourWritesGuard;
     }
 
     @Override public UserDto createUser(UserDto user) {
 
-        if (usersRepository.findByEmail(user.getEmail()) != null)
-            throw new UsersServiceException("Record already exists");
-
-        ModelMapper modelMapper = new ModelMapper();
-        UserEntity userEntity = modelMapper.map(user, UserEntity.class);
+        UserEntity userEntity = userMapper.toUserEntity(user);
 
-        String publicUserId = UUID.randomUUID().toString();
+        String publicUserId = userIdGenerator.generateUserId();
         userEntity.setUserId(publicUserId);
-        userEntity.setEncryptedPassword(bCryptPasswordEncoder.encode(user.getPassword()));
-
-        UserEntity storedUserDetails = usersRepository.save(userEntity);
-
-        UserDto returnValue = modelMapper.map(storedUserDetails, UserDto.class);
+        userEntity.setEncryptedPassword(passwordEncoder.encode(user.getPassword()));
+
+        /* no findByEmail pre-check : the unique constraint on email rejects duplicates in the same round trip as the insert, also under concurrent signups.
+        the insert is flushed right away : with the pooled sequence id hibernate would otherwise hold it back until the caller's transaction (if there is one)
+        commits, and the violation would escape from the commit instead of this catch. */
+        UserEntity storedUserDetails;
+        try {
+            storedUserDetails = usersRepository.saveAndFlush(userEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailUniqueConstraintViolation(e))
+                throw new UsersServiceException("Record already exists");
+            throw e;
+        }
+        readYourWritesGuard.recordWrite(user.getEmail());
+        userLookupCache.invalidateEmailAfterCommit(user.getEmail());
+        cachedUsersCount = null;
+
+        UserDto returnValue = userMapper.toUserDto(storedUserDetails);
 
         return returnValue;
     }
 
     @Override public List<UserDto> getUsers(int page, int limit) {
-        List<UserDto> returnValue = new ArrayList<>();
-
         if (page > 0)
             page -= 1;
 
         Pageable pageableRequest = PageRequest.of(page, limit);
 
-        Page<UserEntity> usersPage = usersRepository.findAll(pageableRequest);
-        List<UserEntity> users = usersPage.getContent();
+        Slice<UserDto> usersSlice = usersRepository.findUserDtosBy(pageableRequest);
 
-        Type listType = new TypeToken<List<UserDto>>() {
-        }.getType();
-        returnValue = new ModelMapper().map(users, listType);
+        return usersSlice.getContent();
+    }
 
-        return returnValue;
+    @Override public List<UserDto> getUsersAfter(long lastId, int limit) {
+        return usersRepository.findUserDtosByIdGreaterThan(lastId, PageRequest.of(0, limit));
     }
 
-    @Override public UserDto getUser(String email) {
-        UserEntity userEntity = usersRepository.findByEmail(email);
+    @Override public long getUsersCount() {
+        CachedCount cachedCount = cachedUsersCount;
+        long now = System.currentTimeMillis();
 
-        if (userEntity == null)
-            throw new UsernameNotFoundException(email);
+        if (cachedCount == null || cachedCount.expiresAt <= now) {
+            cachedCount = new CachedCount(usersRepository.count(), now + usersCountTtlMillis);
+            cachedUsersCount = cachedCount;
+        }
 
-        UserDto returnValue = new UserDto();
-        BeanUtils.copyProperties(userEntity, returnValue);
+        return cachedCount.value;
+    }
 
-        return returnValue;
+    //each user is detached once it has been handed over, so the persistence context does not grow with the number of exported users.
+    @Transactional(readOnly = true)
+    @Override public void exportUsers(Consumer<UserDto> consumer) {
+        try (Stream<UserEntity> users = usersRepository.streamAllBy()) {
+            users.forEach(userEntity -> {
+                consumer.accept(userMapper.toUserDto(userEntity));
+                entityManager.detach(userEntity);
+            });
+        }
+    }
+
+    @Override public UserDto getUser(String email) {
+        return userLookupCache.getByEmail(email, this::findUserByEmail)
+                .orElseThrow(() -> new UsernameNotFoundException(email));
+    }
+
+    @Override public UserDto getUserByUserId(String userId) {
+        return userLookupCache.getByUserId(userId, id -> userMapper.toUserDto(usersRepository.findByUserId(id)))
+                .orElseThrow(() -> new UsernameNotFoundException(userId));
     }
 
     @Override public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserEntity userEntity = usersRepository.findByEmail(email);
+        UserDto user = userLookupCache.getByEmail(email, this::findUserByEmail)
+                .orElseThrow(() -> new UsernameNotFoundException(email));
+
+        return new UserPrincipal(user.getUserId(), user.getEmail(), user.getEncryptedPassword(), new ArrayList<>());
+    }
+
+    //a user created moments ago may not have reached the replicas yet, so it is looked up on the primary.
+    private UserDto findUserByEmail(String email) {
+        if (readYourWritesGuard.isRecentlyWritten(email))
+            return ReadWriteRoutingDataSource.readFromPrimary(() -> userMapper.toUserDto(usersRepository.findByEmail(email)));
+
+        return userMapper.toUserDto(usersRepository.findByEmail(email));
+    }
+
+    //some databases (H2 among them) report the constraint name as part of a longer message, so look for it rather than compare it.
+    static boolean isEmailUniqueConstraintViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException))
+            return false;
+
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(UserEntity.EMAIL_UNIQUE_CONSTRAINT);
+    }
 
-        if (userEntity == null)
-            throw new UsernameNotFoundException(email);
+    private static final class CachedCount {
+        private final long value;
+        private final long expiresAt;
 
-        return new User(userEntity.getEmail(), userEntity.getEncryptedPassword(), new ArrayList<>());
+        private CachedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
     }
 
 }
@@ -0,0 +1,16 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+//random (version 4) UUIDs, as userIds used to be generated. every call draws from the shared SecureRandom.
+@Component
+@ConditionalOnProperty(name = "users.user-id.generator", havingValue = "random")
+public class RandomUserIdGenerator implements UserIdGenerator {
+
+    @Override public String generateUserId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/* Version 7 UUIDs : the first 48 bits are the unix time in milliseconds, followed by a 12 bit counter, then 62 random bits. consecutive userIds sort after
+one another (as UUIDs and as strings), so inserts land at the right edge of the unique index on users.userId instead of on a random page of it.
+
+the timestamp and counter are taken from one AtomicLong with a compare-and-set, so ids stay strictly increasing across threads without a lock. when more
+than 4096 ids are generated within a millisecond the counter carries into the timestamp, which then runs slightly ahead of the clock. the random bits come
+from ThreadLocalRandom rather than the shared SecureRandom : userIds are public identifiers, not secrets. */
+@Component
+@ConditionalOnProperty(name = "users.user-id.generator", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedUserIdGenerator implements UserIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+    private final LongSupplier clock;
+
+    public TimeOrderedUserIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedUserIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override public String generateUserId() {
+        long timestampAndCounter = lastTimestampAndCounter.updateAndGet(last -> Math.max(clock.getAsLong() << COUNTER_BITS, last + 1));
+
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16  //unix_ts_ms
+                | 0x7000L                                                  //version 7
+                | (timestampAndCounter & COUNTER_MASK);                    //rand_a, used as the counter
+        long leastSigBits = ThreadLocalRandom.current().nextLong() >>> 2 //rand_b
+                | 0x8000000000000000L;                                   //variant 2
+
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -10,6 +10,18 @@ public class UserDto {
     private String password;
     private String encryptedPassword;
 
+    public UserDto() {
+    }
+
+    //used by the listing queries in UsersRepository, which select only the public columns (and the id, for the next cursor) straight into a UserDto.
+    public UserDto(long id, String userId, String firstName, String lastName, String email) {
+        this.id = id;
+        this.userId = userId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
     public long getId() {
         return id;
     }
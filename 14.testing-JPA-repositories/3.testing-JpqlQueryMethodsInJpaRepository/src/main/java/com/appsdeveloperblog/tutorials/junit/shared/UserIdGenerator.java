@@ -0,0 +1,8 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+/* Generates the public userId of new users. the implementation is picked with users.user-id.generator : 'time-ordered' (the default, see
+TimeOrderedUserIdGenerator) or 'random' (RandomUserIdGenerator). */
+public interface UserIdGenerator {
+
+    String generateUserId();
+}
@@ -0,0 +1,24 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+
+import java.util.List;
+
+/* Maps users between the ui, shared and io layers. the implementation copies properties with plain getters and setters, so unlike ModelMapper there is no
+type map to build by reflection on each request. a single stateless INSTANCE is shared by the controller and the service. */
+public interface UserMapper {
+
+    UserMapper INSTANCE = new UserMapperImpl();
+
+    UserDto toUserDto(UserDetailsRequestModel userDetails);
+
+    UserDto toUserDto(UserEntity userEntity);
+
+    UserEntity toUserEntity(UserDto userDto);
+
+    UserRest toUserRest(UserDto userDto);
+
+    List<UserRest> toUserRestList(List<UserDto> userDtos);
+}
@@ -0,0 +1,75 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class UserMapperImpl implements UserMapper {
+
+    @Override public UserDto toUserDto(UserDetailsRequestModel userDetails) {
+        if (userDetails == null)
+            return null;
+
+        UserDto userDto = new UserDto();
+        userDto.setFirstName(userDetails.getFirstName());
+        userDto.setLastName(userDetails.getLastName());
+        userDto.setEmail(userDetails.getEmail());
+        userDto.setPassword(userDetails.getPassword());
+
+        return userDto;
+    }
+
+    @Override public UserDto toUserDto(UserEntity userEntity) {
+        if (userEntity == null)
+            return null;
+
+        UserDto userDto = new UserDto();
+        userDto.setId(userEntity.getId());
+        userDto.setUserId(userEntity.getUserId());
+        userDto.setFirstName(userEntity.getFirstName());
+        userDto.setLastName(userEntity.getLastName());
+        userDto.setEmail(userEntity.getEmail());
+        userDto.setEncryptedPassword(userEntity.getEncryptedPassword());
+
+        return userDto;
+    }
+
+    @Override public UserEntity toUserEntity(UserDto userDto) {
+        if (userDto == null)
+            return null;
+
+        UserEntity userEntity = new UserEntity();
+        userEntity.setId(userDto.getId());
+        userEntity.setUserId(userDto.getUserId());
+        userEntity.setFirstName(userDto.getFirstName());
+        userEntity.setLastName(userDto.getLastName());
+        userEntity.setEmail(userDto.getEmail());
+        userEntity.setEncryptedPassword(userDto.getEncryptedPassword());
+
+        return userEntity;
+    }
+
+    @Override public UserRest toUserRest(UserDto userDto) {
+        if (userDto == null)
+            return null;
+
+        UserRest userRest = new UserRest();
+        userRest.setUserId(userDto.getUserId());
+        userRest.setFirstName(userDto.getFirstName());
+        userRest.setLastName(userDto.getLastName());
+        userRest.setEmail(userDto.getEmail());
+
+        return userRest;
+    }
+
+    @Override public List<UserRest> toUserRestList(List<UserDto> userDtos) {
+        List<UserRest> returnValue = new ArrayList<>(userDtos.size());
+        for (UserDto userDto : userDtos)
+            returnValue.add(toUserRest(userDto));
+
+        return returnValue;
+    }
+}
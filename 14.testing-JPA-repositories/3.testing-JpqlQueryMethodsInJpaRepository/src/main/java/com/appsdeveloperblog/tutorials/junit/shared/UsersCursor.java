@@ -0,0 +1,29 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/* Opaque continuation token for keyset pagination of GET /users. it wraps the id of the last user the client has seen, so the next page can seek past it
+on the primary key index instead of skipping rows with an OFFSET. */
+public final class UsersCursor {
+
+    private UsersCursor() {
+    }
+
+    public static String encode(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    //an empty cursor starts from the first user. throws IllegalArgumentException if the cursor was not produced by encode.
+    public static long decode(String cursor) {
+        if (cursor.isEmpty())
+            return 0L;
+
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != Long.BYTES)
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+}
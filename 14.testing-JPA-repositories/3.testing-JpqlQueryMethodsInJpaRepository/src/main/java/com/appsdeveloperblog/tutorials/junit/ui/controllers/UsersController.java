@@ -2,46 +2,129 @@ package com.appsdeveloperblog.tutorials.junit.ui.controllers;
 
 import com.appsdeveloperblog.tutorials.junit.service.UsersService;
 import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.shared.UserMapper;
+import com.appsdeveloperblog.tutorials.junit.shared.UsersCursor;
 import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
 import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.lang.reflect.Type;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/users")
 public class UsersController {
 
+    static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+    static final String TOTAL_COUNT_HEADER = "Total-Count";
+
     UsersService usersService;
+    UserMapper userMapper = UserMapper.INSTANCE;
+
+    //built from the application's ObjectMapper, so the export is written with the same spring.jackson settings and modules as every other response.
+    private final ObjectWriter userRestWriter;
 
     @Autowired
-    public UsersController(UsersService usersService) {
+    public UsersController(UsersService usersService, ObjectMapper objectMapper) {
         this.usersService = usersService;
+        this.userRestWriter = objectMapper.writerFor(UserRest.class);
     }
 
     @PostMapping
     public UserRest createUser(@RequestBody @Valid UserDetailsRequestModel userDetails) throws Exception {
-        ModelMapper modelMapper = new ModelMapper();
-        UserDto userDto = new ModelMapper().map(userDetails, UserDto.class);
+        UserDto userDto = userMapper.toUserDto(userDetails);
 
         UserDto createdUser = usersService.createUser(userDto);
 
-        return modelMapper.map(createdUser, UserRest.class);
+        return userMapper.toUserRest(createdUser);
     }
 
+    /* without a 'cursor' parameter users are paged with page & limit. with one (an empty cursor starts from the first user), the page is read with keyset
+    pagination and the cursor for the next page is returned in the Next-Cursor header, until a page comes back with less than 'limit' users.
+    users are not counted unless 'includeTotal' is set, in which case the (briefly cached) total is returned in the Total-Count header. */
     @GetMapping
-    public List<UserRest> getUsers(@RequestParam(value = "page", defaultValue = "0") int page,
-                                   @RequestParam(value = "limit", defaultValue = "2") int limit) {
-        List<UserDto> users = usersService.getUsers(page, limit);
+    public ResponseEntity<List<UserRest>> getUsers(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                   @RequestParam(value = "limit", defaultValue = "2") int limit,
+                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                   @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (includeTotal)
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(usersService.getUsersCount()));
+
+        if (cursor == null) {
+            List<UserDto> users = usersService.getUsers(page, limit);
+            return response.body(userMapper.toUserRestList(users));
+        }
+
+        long lastId;
+        try {
+            lastId = UsersCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+
+        List<UserDto> users = usersService.getUsersAfter(lastId, limit);
+
+        if (!users.isEmpty() && users.size() == limit)
+            response.header(NEXT_CURSOR_HEADER, UsersCursor.encode(users.get(users.size() - 1).getId()));
+
+        return response.body(userMapper.toUserRestList(users));
+    }
+
+    /* streams every user to the response as NDJSON (one JSON object per line) or, with format=csv, as CSV. users are written while they are read from the
+    database cursor, so the export never holds more than one user in memory. */
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (csv)
+            writer.write("userId,firstName,lastName,email\n");
+
+        usersService.exportUsers(userDto -> {
+            UserRest user = userMapper.toUserRest(userDto);
+            try {
+                if (csv) {
+                    writer.write(csvValue(user.getUserId()) + ',' + csvValue(user.getFirstName()) + ',' + csvValue(user.getLastName()) + ','
+                            + csvValue(user.getEmail()) + '\n');
+                } else {
+                    writer.write(userRestWriter.writeValueAsString(user));
+                    writer.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.flush();
+    }
+
+    private static String csvValue(String value) {
+        if (value == null)
+            return "";
 
-        Type listType = new TypeToken<List<UserRest>>() {
-        }.getType();
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
 
-        return new ModelMapper().map(users, listType);
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 }
@@ -0,0 +1,67 @@
+package com.appsdeveloperblog.tutorials.junit.ui.controllers;
+
+import com.appsdeveloperblog.tutorials.junit.service.UserImportJob;
+import com.appsdeveloperblog.tutorials.junit.service.UserImportService;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserImportJobRest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/users/import")
+public class UsersImportController {
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    UserImportService userImportService;
+
+    @Autowired
+    public UsersImportController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    //starts a background import of the request body and answers 202 Accepted with the location of the job's status resource.
+    @PostMapping(consumes = { NDJSON, CSV })
+    public ResponseEntity<UserImportJobRest> importUsers(HttpServletRequest request) throws IOException {
+        UserImportJob.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? UserImportJob.Format.CSV
+                : UserImportJob.Format.NDJSON;
+
+        UserImportJob job = userImportService.startImport(request.getInputStream(), format);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/users/import/" + job.getJobId()))
+                .body(toUserImportJobRest(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public UserImportJobRest getImportJob(@PathVariable("jobId") String jobId) {
+        UserImportJob job = userImportService.getImportJob(jobId);
+
+        if (job == null)
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found");
+
+        return toUserImportJobRest(job);
+    }
+
+    private static UserImportJobRest toUserImportJobRest(UserImportJob job) {
+        UserImportJobRest returnValue = new UserImportJobRest();
+        returnValue.setJobId(job.getJobId());
+        returnValue.setState(job.getState().name());
+        returnValue.setRowsRead(job.getRowsRead());
+        returnValue.setRowsImported(job.getRowsImported());
+        returnValue.setRowsRejected(job.getRowsRejected());
+        returnValue.setRowsPerSecond(job.getRowsPerSecond());
+        returnValue.setError(job.getError());
+
+        return returnValue;
+    }
+}
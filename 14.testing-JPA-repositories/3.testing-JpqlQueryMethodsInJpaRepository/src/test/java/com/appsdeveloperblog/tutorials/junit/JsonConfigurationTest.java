@@ -0,0 +1,52 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class JsonConfigurationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper blackbirdObjectMapper = new ObjectMapper().registerModule(new JsonConfiguration().blackbirdModule());
+
+    @Test
+    @DisplayName("UserRest list is written byte for byte the same")
+    void testWriteValueAsBytes_whenUserRestList_returnsSameBytes() throws Exception {
+        //arrange
+        UserRest userRest = new UserRest();
+        userRest.setUserId("0189b4a2-6f4e-7c3d-8a1b-2c3d4e5f6a7b");
+        userRest.setFirstName("kalana");
+        userRest.setLastName("\"sandakelum\" ü");
+        userRest.setEmail("test@test.com");
+        List<UserRest> userRests = List.of(userRest, new UserRest());
+
+        //act
+        byte[] expected = objectMapper.writeValueAsBytes(userRests);
+        byte[] actual = blackbirdObjectMapper.writeValueAsBytes(userRests);
+
+        //assert
+        Assertions.assertArrayEquals(expected, actual, "blackbird should not change the JSON, got " + new String(actual, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("UserDetailsRequestModel is read the same")
+    void testReadValue_whenUserDetailsJson_returnsSameModel() throws Exception {
+        //arrange
+        String json = "{\"firstName\":\"kalana\",\"lastName\":\"sandakelum\",\"email\":\"test@test.com\",\"password\":\"12345678\",\"repeatPassword\":\"12345678\"}";
+
+        //act
+        UserDetailsRequestModel expected = objectMapper.readValue(json, UserDetailsRequestModel.class);
+        UserDetailsRequestModel actual = blackbirdObjectMapper.readValue(json, UserDetailsRequestModel.class);
+
+        //assert
+        Assertions.assertEquals(objectMapper.writeValueAsString(expected), objectMapper.writeValueAsString(actual), "blackbird should bind the same values");
+        Assertions.assertEquals("kalana", actual.getFirstName(), "first name should be bound");
+        Assertions.assertEquals("12345678", actual.getRepeatPassword(), "repeat password should be bound");
+    }
+}
@@ -0,0 +1,139 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"users.security.bcrypt.strength=4", "users.metrics.scraper.password=" + MetricsConfigurationTest.SCRAPER_PASSWORD})
+public class MetricsConfigurationTest {
+
+    static final String SCRAPER_PASSWORD = "scraper-secret";
+
+    @Autowired TestRestTemplate testRestTemplate;
+    private String scrape;
+
+    //sends one signup, one login and one GET /users through the application, then scrapes the metrics they left behind.
+    @BeforeAll void setUp() throws JSONException {
+        JSONObject userDetailsRequestJson = new JSONObject();
+        userDetailsRequestJson.put("firstName", "kalana");
+        userDetailsRequestJson.put("lastName", "sandakelum");
+        userDetailsRequestJson.put("email", "metrics@test.com");
+        userDetailsRequestJson.put("password", "12345678");
+        userDetailsRequestJson.put("repeatPassword", "12345678");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        testRestTemplate.postForEntity("/users", new HttpEntity<>(userDetailsRequestJson.toString(), headers), String.class);
+
+        JSONObject loginCredentials = new JSONObject();
+        loginCredentials.put("email", "metrics@test.com");
+        loginCredentials.put("password", "12345678");
+        ResponseEntity<String> login = testRestTemplate.postForEntity("/users/login", new HttpEntity<>(loginCredentials.toString()), String.class);
+
+        HttpHeaders authorization = new HttpHeaders();
+        authorization.set(SecurityConstants.HEADER_STRING, login.getHeaders().getFirst(SecurityConstants.HEADER_STRING));
+        testRestTemplate.exchange("/users", HttpMethod.GET, new HttpEntity<>(authorization), String.class);
+
+        ResponseEntity<String> response = testRestTemplate.withBasicAuth("prometheus", SCRAPER_PASSWORD).getForEntity("/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), "the metrics scraper should be able to scrape");
+        scrape = response.getBody();
+    }
+
+    @Test
+    @DisplayName("Prometheus scrape needs the scraper's credentials")
+    void testPrometheusScrape_whenNotScraper_returns401() {
+        //act
+        ResponseEntity<String> anonymous = testRestTemplate.getForEntity("/actuator/prometheus", String.class);
+        ResponseEntity<String> wrongPassword = testRestTemplate.withBasicAuth("prometheus", "wrong").getForEntity("/actuator/prometheus", String.class);
+
+        //assert
+        assertEquals(HttpStatus.UNAUTHORIZED, anonymous.getStatusCode(), "an anonymous scrape should be rejected");
+        assertEquals(HttpStatus.UNAUTHORIZED, wrongPassword.getStatusCode(), "a scrape with a wrong password should be rejected");
+    }
+
+    @Test
+    @DisplayName("Health stays public")
+    void testHealth_whenAnonymous_returns200() {
+        //act
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/actuator/health", String.class);
+
+        //assert
+        assertEquals(HttpStatus.OK, response.getStatusCode(), "health should not need credentials");
+    }
+
+    @Test
+    @DisplayName("Security filters publish histograms")
+    void testPrometheusScrape_afterLogin_containsFilterHistograms() {
+        //assert
+        assertTrue(scrape.contains("users_security_filter_seconds_bucket{class=\"AuthenticationFilter\",method=\"attemptAuthentication\""),
+                "attemptAuthentication should be timed with a histogram");
+        assertTrue(scrape.contains("users_security_filter_seconds_bucket{class=\"AuthenticationFilter\",method=\"successfulAuthentication\""),
+                "successfulAuthentication should be timed with a histogram");
+        assertTrue(scrape.contains("users_security_filter_seconds_bucket{class=\"AuthorizationFilter\",method=\"doFilterInternal\""),
+                "doFilterInternal should be timed with a histogram");
+    }
+
+    @Test
+    @DisplayName("Controller methods publish histograms")
+    void testPrometheusScrape_afterGetUsers_containsControllerHistograms() {
+        //assert
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_bucket\\{[^}]*method=\"GET\"[^}]*uri=\"/users\".*"),
+                "GET /users should be timed with a histogram");
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_bucket\\{[^}]*method=\"POST\"[^}]*uri=\"/users\".*"),
+                "POST /users should be timed with a histogram");
+    }
+
+    @Test
+    @DisplayName("Service methods publish histograms")
+    void testPrometheusScrape_afterGetUsers_containsServiceHistograms() {
+        //assert
+        assertTrue(scrape.matches("(?s).*users_service_seconds_bucket\\{[^}]*method=\"getUsers\".*"), "getUsers should be timed with a histogram");
+        assertTrue(scrape.matches("(?s).*users_service_seconds_bucket\\{[^}]*method=\"createUser\".*"), "createUser should be timed with a histogram");
+        assertTrue(scrape.matches("(?s).*users_service_seconds_bucket\\{[^}]*method=\"loadUserByUsername\".*"),
+                "loadUserByUsername should be timed with a histogram");
+    }
+
+    @Test
+    @DisplayName("Repository queries publish histograms")
+    void testPrometheusScrape_afterGetUsers_containsRepositoryHistograms() {
+        //assert
+        assertTrue(scrape.matches("(?s).*spring_data_repository_invocations_seconds_bucket\\{[^}]*method=\"findUserDtosBy\"[^}]*repository=\"UsersRepository\".*"),
+                "UsersRepository.findUserDtosBy should be timed with a histogram");
+    }
+
+    @Test
+    @DisplayName("Password encoder publishes its pool and rejections")
+    void testPrometheusScrape_afterLogin_containsPasswordEncoderMeters() {
+        //assert
+        assertTrue(scrape.contains("executor_queued_tasks{name=\"passwordEncoder\""), "password encoder queue depth should be published");
+        assertTrue(scrape.contains("executor_completed_tasks_total{name=\"passwordEncoder\""), "password encoder completed tasks should be published");
+        assertTrue(scrape.contains("users_security_password_encoder_rejected_total"), "password encoder rejections should be published");
+    }
+
+    @Test
+    @DisplayName("User lookup caches publish their statistics")
+    void testPrometheusScrape_afterLogin_containsUserLookupCacheMeters() {
+        //assert
+        assertTrue(scrape.matches("(?s).*cache_gets_total\\{cache=\"usersByEmail\"[^}]*result=\"miss\".*"), "email cache misses should be published");
+        assertTrue(scrape.matches("(?s).*cache_size\\{cache=\"usersByUserId\".*"), "userId cache size should be published");
+    }
+}
@@ -0,0 +1,121 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import com.appsdeveloperblog.tutorials.junit.service.UserLookupCache;
+import com.appsdeveloperblog.tutorials.junit.service.UsersService;
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/* Two embedded H2 databases stand in for a primary and its replica. nothing copies rows between them except replicate() below, so a row written to the
+primary stays invisible to the replica until a test replicates it, like a replica that lags behind. */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties = {
+        "users.security.bcrypt.strength=4",
+        "spring.datasource.url=" + ReadReplicaConfigurationTest.PRIMARY_URL,
+        "users.datasource.replica-urls=" + ReadReplicaConfigurationTest.REPLICA_URL,
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+public class ReadReplicaConfigurationTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:users-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:users-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired UsersService usersService;
+    @Autowired UserLookupCache userLookupCache;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private UserDto userDto;
+
+    //hibernate created the schema on the primary only, copy it to the replica.
+    @BeforeAll void setUpReplica() {
+        List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+        schema.forEach(replica::execute);
+    }
+
+    @BeforeEach void setUp() {
+        userLookupCache.invalidateAll();
+
+        userDto = new UserDto();
+        userDto.setFirstName("kalana");
+        userDto.setLastName("sandakelum");
+        userDto.setEmail(UUID.randomUUID() + "@test.com");
+        userDto.setPassword("12345678");
+    }
+
+    @Test
+    @DisplayName("Users are written to the primary and listed from the replica")
+    void testGetUsers_whenUserOnlyOnPrimary_listsReplicaUsers() {
+        //act
+        usersService.createUser(userDto);
+        List<String> listedBeforeReplication = listedEmails();
+        replicate(userDto.getEmail());
+        List<String> listedAfterReplication = listedEmails();
+
+        //assert
+        assertEquals(1, countUsers(primary, userDto.getEmail()), "new user should be written to the primary");
+        assertFalse(listedBeforeReplication.contains(userDto.getEmail()), "users should be listed from the replica, which does not have the new user yet");
+        assertTrue(listedAfterReplication.contains(userDto.getEmail()), "users should be listed from the replica once it has the new user");
+    }
+
+    @Test
+    @DisplayName("A user created moments ago is looked up on the primary")
+    void testGetUser_whenUserJustCreated_readsOwnWriteFromPrimary() {
+        //arrange
+        usersService.createUser(userDto);
+
+        //act
+        UserDto user = usersService.getUser(userDto.getEmail());
+
+        //assert
+        assertEquals(0, countUsers(replica, userDto.getEmail()), "replica should not have the new user yet");
+        assertEquals(userDto.getEmail(), user.getEmail(), "new user should be found although the replica does not have it yet");
+    }
+
+    @Test
+    @DisplayName("Other users are looked up on the replica")
+    void testGetUser_whenUserNotRecentlyCreated_readsReplica() {
+        //arrange : written to the primary behind the service's back, so it is not known as a recent write.
+        primary.update("insert into users (id, user_id, first_name, last_name, email, email_domain, encrypted_password) "
+                        + "values (next value for users_seq, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID().toString(), "kalana", "sandakelum", userDto.getEmail(), "test.com", "12345678");
+
+        //act & assert
+        assertThrows(UsernameNotFoundException.class, () -> usersService.getUser(userDto.getEmail()),
+                "lookup should go to the replica, which does not have the user yet");
+
+        replicate(userDto.getEmail());
+        userLookupCache.invalidateAll();
+        assertEquals(userDto.getEmail(), usersService.getUser(userDto.getEmail()).getEmail(), "lookup should find the user once the replica has it");
+    }
+
+    private List<String> listedEmails() {
+        return usersService.getUsers(1, 1000).stream().map(UserDto::getEmail).collect(Collectors.toList());
+    }
+
+    private static int countUsers(JdbcTemplate database, String email) {
+        return database.queryForObject("select count(*) from users where email = ?", Integer.class, email);
+    }
+
+    private void replicate(String email) {
+        Map<String, Object> row = primary.queryForMap("select * from users where email = ?", email);
+        String columns = String.join(", ", row.keySet());
+        String placeholders = row.keySet().stream().map(column -> "?").collect(Collectors.joining(", "));
+        replica.update("insert into users (" + columns + ") values (" + placeholders + ")", row.values().toArray());
+    }
+}
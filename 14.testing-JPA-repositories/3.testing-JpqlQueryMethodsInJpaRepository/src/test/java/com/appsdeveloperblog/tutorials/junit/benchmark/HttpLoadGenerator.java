@@ -0,0 +1,127 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/* Drives HTTP requests at a running server from 'concurrency' client threads that share one HttpClient, so connections are kept alive and reused. every
+request's latency is recorded, and run returns throughput and latency percentiles. */
+public class HttpLoadGenerator {
+
+    private final HttpClient httpClient;
+    private final int concurrency;
+
+    public HttpLoadGenerator(int concurrency) {
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    //signs up load@test.com on the server at 'port', logs it in and returns the Authorization header to send with authenticated requests.
+    public String createUserAndLogin(int port) throws IOException, InterruptedException {
+        String user = "{\"firstName\":\"kalana\",\"lastName\":\"sandakelum\",\"email\":\"load@test.com\",\"password\":\"12345678\",\"repeatPassword\":\"12345678\"}";
+        httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(user))
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<Void> login = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"load@test.com\",\"password\":\"12345678\"}"))
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        return login.headers().firstValue(SecurityConstants.HEADER_STRING)
+                .orElseThrow(() -> new IllegalStateException("login failed with status " + login.statusCode()));
+    }
+
+    //sends 'requests' requests in total; requestFactory gets the sequence number of the request and returns the request to send.
+    public Result run(int requests, IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Thread client = new Thread(() -> {
+                try {
+                    int request;
+                    while ((request = nextRequest.getAndIncrement()) < requests) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(requestFactory.apply(request), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400)
+                                errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[request] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+
+        return new Result(requests, errors.get(), System.nanoTime() - start, latencies);
+    }
+
+    public static class Result {
+        private final int requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        Result(int requests, long errors, long elapsedNanos, long[] latencies) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(this.sortedLatencies);
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getThroughputPerSecond() {
+            return requests * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        //latency in milliseconds at the given percentile, e.g. 99.9
+        public double getLatencyMillis(double percentile) {
+            if (sortedLatencies.length == 0)
+                return 0;
+
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1_000_000.0;
+        }
+
+        @Override public String toString() {
+            return String.format("requests=%d errors=%d throughput=%.1f/s p50=%.2fms p99=%.2fms p999=%.2fms",
+                    requests, errors, getThroughputPerSecond(), getLatencyMillis(50), getLatencyMillis(99), getLatencyMillis(99.9));
+        }
+    }
+}
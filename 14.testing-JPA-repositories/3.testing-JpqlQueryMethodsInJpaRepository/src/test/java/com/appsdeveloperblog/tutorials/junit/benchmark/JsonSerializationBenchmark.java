@@ -0,0 +1,82 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.JsonConfiguration;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/* Cost of writing the List<UserRest> body of GET /users with a shared ObjectMapper, as spring's message converter does, at the default limit of 2 and larger
+pages, and of reading the UserDetailsRequestModel body of POST /users. each is measured with a plain ObjectMapper (reflective accessors) and with one that has
+the blackbird module JsonConfiguration registers (generated accessors). */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"2", "50", "500"})
+    private int users;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper blackbirdObjectMapper;
+    private List<UserRest> userRests;
+    private byte[] userDetailsJson;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        blackbirdObjectMapper = new ObjectMapper().registerModule(new JsonConfiguration().blackbirdModule());
+        userDetailsJson = ("{\"firstName\":\"kalana\",\"lastName\":\"sandakelum\",\"email\":\"kalana@test.com\",\"password\":\"12345678\","
+                + "\"repeatPassword\":\"12345678\"}").getBytes(StandardCharsets.UTF_8);
+
+        userRests = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserRest userRest = new UserRest();
+            userRest.setUserId(UUID.randomUUID().toString());
+            userRest.setFirstName("kalana");
+            userRest.setLastName("sandakelum");
+            userRest.setEmail("kalana" + i + "@test.com");
+            userRests.add(userRest);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeUserRestList() throws IOException {
+        return objectMapper.writeValueAsBytes(userRests);
+    }
+
+    @Benchmark
+    public byte[] writeUserRestList_blackbird() throws IOException {
+        return blackbirdObjectMapper.writeValueAsBytes(userRests);
+    }
+
+    @Benchmark
+    public UserDetailsRequestModel readUserDetailsRequestModel() throws IOException {
+        return objectMapper.readValue(userDetailsJson, UserDetailsRequestModel.class);
+    }
+
+    @Benchmark
+    public UserDetailsRequestModel readUserDetailsRequestModel_blackbird() throws IOException {
+        return blackbirdObjectMapper.readValue(userDetailsJson, UserDetailsRequestModel.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
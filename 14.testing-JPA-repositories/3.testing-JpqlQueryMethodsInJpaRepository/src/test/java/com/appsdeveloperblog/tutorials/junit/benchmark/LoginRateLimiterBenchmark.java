@@ -0,0 +1,61 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.LoginThrottledException;
+import com.appsdeveloperblog.tutorials.junit.security.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/* Throughput of LoginRateLimiter with one thread per core taking tokens at once : all of them from one email (a targeted attack, every thread contends on
+the same bucket), from 1000 emails (a busy login page) and from a million (a credential-stuffing list, so the 100000 key limit keeps evicting). run with 1
+stripe and with 64 to see what striping buys once the buckets no longer fit. buckets refill at the default rate, so none of them is dropped for having
+refilled, and each email allows a million attempts before it is throttled. */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class LoginRateLimiterBenchmark {
+
+    @Param({"1", "64"})
+    private int stripes;
+
+    @Param({"1", "1000", "1000000"})
+    private int emails;
+
+    private LoginRateLimiter loginRateLimiter;
+    private String[] emailAddresses;
+
+    @Setup
+    public void setUp() {
+        loginRateLimiter = new LoginRateLimiter(true, 1000000, 10, 1000000, 10, 100000, stripes, new SimpleMeterRegistry());
+
+        emailAddresses = new String[emails];
+        for (int i = 0; i < emails; i++)
+            emailAddresses[i] = "user" + i + "@test.com";
+    }
+
+    @Benchmark
+    public boolean acquireForEmail() {
+        try {
+            loginRateLimiter.acquireForEmail(emailAddresses[ThreadLocalRandom.current().nextInt(emails)]);
+            return true;
+        } catch (LoginThrottledException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginRateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+//Cost of BCryptPasswordEncoder encode and matches at several strengths, used to pick the default of users.security.bcrypt.strength.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = bCryptPasswordEncoder.encode("12345678");
+    }
+
+    @Benchmark
+    public String encode() {
+        return bCryptPasswordEncoder.encode("12345678");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return bCryptPasswordEncoder.matches("12345678", encodedPassword);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PasswordEncoderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+import com.appsdeveloperblog.tutorials.junit.security.TokenService;
+import com.appsdeveloperblog.tutorials.junit.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/* Throughput of issuing a JWT on every login, through a new Jwts.builder (as AuthenticationFilter used to) against TokenService, and of verifying the same JWT over and over : parsing it on every request (as
+AuthorizationFilter used to) against a VerifiedTokenCache hit.
+
+runs on a single platform thread (JMH's default), so TokenService's Mac pool always hands back the same Mac : this is the cost of signing, not of building a
+Mac. with virtual threads every login runs on a new thread, which is why TokenService pools its Macs rather than keeping one per thread. */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private String token;
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenService tokenService;
+
+    @Setup
+    public void setUp() {
+        token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 864000000L))
+                .signWith(SignatureAlgorithm.HS512, SecurityConstants.TOKEN_SECRET)
+                .compact();
+
+        tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 864000000L);
+
+        verifiedTokenCache = new VerifiedTokenCache(10000, new SimpleMeterRegistry());
+        Claims claims = Jwts.parser().setSigningKey(SecurityConstants.TOKEN_SECRET).parseClaimsJws(token).getBody();
+        verifiedTokenCache.put(token, claims.getSubject(), claims.getExpiration().getTime());
+    }
+
+    @Benchmark
+    public String issueToken_jwtsBuilder() {
+        return Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 864000000L))
+                .signWith(SignatureAlgorithm.HS512, SecurityConstants.TOKEN_SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String issueToken_tokenService() {
+        return tokenService.issueToken("test@test.com");
+    }
+
+    @Benchmark
+    public String parseEveryRequest() {
+        return Jwts.parser()
+                .setSigningKey(SecurityConstants.TOKEN_SECRET)
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String verifiedTokenCacheHit() {
+        return verifiedTokenCache.getSubject(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.shared.RandomUserIdGenerator;
+import com.appsdeveloperblog.tutorials.junit.shared.TimeOrderedUserIdGenerator;
+import com.appsdeveloperblog.tutorials.junit.shared.UserIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/* Insert throughput and on-disk size of a users table with a unique index on userId, filled with random (version 4) userIds against time-ordered (version
+7) ones. each run inserts into its own file-based H2 database in JDBC batches; the size is that of the database file once the database is compacted, so it
+reflects how full the index pages are rather than how much was rewritten on the way.
+
+    java -cp <test classpath> com.appsdeveloperblog.tutorials.junit.benchmark.UserIdInsertComparison [rows] [batch size]            */
+public class UserIdInsertComparison {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserIdInsertComparison.class);
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        //first runs only warm the JIT up.
+        run(new RandomUserIdGenerator(), Math.min(rows, 100_000), batchSize);
+        run(new TimeOrderedUserIdGenerator(), Math.min(rows, 100_000), batchSize);
+
+        LOG.info("random       : {}", run(new RandomUserIdGenerator(), rows, batchSize));
+        LOG.info("time-ordered : {}", run(new TimeOrderedUserIdGenerator(), rows, batchSize));
+    }
+
+    private static String run(UserIdGenerator userIdGenerator, int rows, int batchSize) throws Exception {
+        Path directory = Files.createTempDirectory("user-id-comparison");
+        try {
+            String url = "jdbc:h2:" + directory.resolve("users").toAbsolutePath();
+            long elapsedNanos;
+
+            try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("create table users (id bigint auto_increment primary key, user_id varchar(255) not null, "
+                            + "constraint uk_users_user_id unique (user_id))");
+                }
+
+                connection.setAutoCommit(false);
+                long start = System.nanoTime();
+                insert(connection, userIdGenerator, rows, batchSize);
+                elapsedNanos = System.nanoTime() - start;
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("shutdown compact");
+                }
+            }
+
+            long bytes = Files.size(directory.resolve("users.mv.db"));
+            return String.format("rows=%d inserts=%.0f/s size=%.1fMB", rows, rows * 1_000_000_000.0 / elapsedNanos, bytes / (1024.0 * 1024.0));
+        } finally {
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    private static void insert(Connection connection, UserIdGenerator userIdGenerator, int rows, int batchSize) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert into users (user_id) values (?)")) {
+            for (int row = 1; row <= rows; row++) {
+                insert.setString(1, userIdGenerator.generateUserId());
+                insert.addBatch();
+
+                if (row % batchSize == 0 || row == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+}
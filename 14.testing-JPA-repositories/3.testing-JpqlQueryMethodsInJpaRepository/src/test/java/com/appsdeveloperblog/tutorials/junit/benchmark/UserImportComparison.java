@@ -0,0 +1,54 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.UsersServiceSpringBootApplication;
+import com.appsdeveloperblog.tutorials.junit.service.UserImportJob;
+import com.appsdeveloperblog.tutorials.junit.service.UserImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/* Import throughput (imported rows per second) of the same CSV upload at the production bcrypt cost, with the password encoder running on 1, 2, 4 ... threads
+(users.security.bcrypt.threads). the import hashes each batch's passwords side by side on those threads, so on a machine with at least as many cores the
+throughput grows with the number of threads until it reaches the cores; on a single core it stays flat, because BCrypt is bound by the CPU.
+
+    java -cp <test classpath> com.appsdeveloperblog.tutorials.junit.benchmark.UserImportComparison [rows] [max threads]            */
+public class UserImportComparison {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserImportComparison.class);
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+            LOG.info("bcrypt threads={} : {} rows/s", threads, String.format("%.1f", run(threads, rows)));
+    }
+
+    private static double run(int threads, int rows) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(UsersServiceSpringBootApplication.class,
+                "--server.port=0",
+                "--users.security.bcrypt.threads=" + threads,
+                "--logging.level.root=WARN",
+                "--logging.level.com.appsdeveloperblog.tutorials.junit.benchmark=INFO");
+        try {
+            StringBuilder csv = new StringBuilder("firstName,lastName,email,password\n");
+            for (int row = 0; row < rows; row++)
+                csv.append("kalana,sandakelum,import").append(row).append("@test.com,12345678\n");
+
+            UserImportJob job = context.getBean(UserImportService.class)
+                    .startImport(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), UserImportJob.Format.CSV);
+            while (!job.isFinished())
+                Thread.sleep(20);
+
+            if (job.getState() != UserImportJob.State.COMPLETED)
+                throw new IllegalStateException("import failed : " + job.getError());
+            return job.getRowsPerSecond();
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.shared.UserMapper;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//Per-record mapping cost of the old ModelMapper path (a new ModelMapper per request, as UsersController and UsersServiceImpl used to do) against UserMapper.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserDetailsRequestModel userDetails;
+    private UserEntity userEntity;
+    private List<UserEntity> userEntities;
+    private List<UserDto> userDtos;
+
+    @Setup
+    public void setUp() {
+        userDetails = new UserDetailsRequestModel();
+        userDetails.setFirstName("kalana");
+        userDetails.setLastName("sandakelum");
+        userDetails.setEmail("kalana@test.com");
+        userDetails.setPassword("12345678");
+        userDetails.setRepeatPassword("12345678");
+
+        userEntity = new UserEntity();
+        userEntity.setId(1L);
+        userEntity.setUserId(UUID.randomUUID().toString());
+        userEntity.setFirstName("kalana");
+        userEntity.setLastName("sandakelum");
+        userEntity.setEmail("kalana@test.com");
+        userEntity.setEncryptedPassword("12345678");
+
+        userEntities = new ArrayList<>();
+        userDtos = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            userEntities.add(userEntity);
+            userDtos.add(new UserDto(userEntity.getId(), userEntity.getUserId(), userEntity.getFirstName(), userEntity.getLastName(), userEntity.getEmail()));
+        }
+    }
+
+    //POST /users : request model -> dto -> entity -> dto -> rest
+    @Benchmark
+    public UserRest createUser_modelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        UserDto userDto = modelMapper.map(userDetails, UserDto.class);
+        UserEntity entity = modelMapper.map(userDto, UserEntity.class);
+        UserDto storedUser = new ModelMapper().map(entity, UserDto.class);
+        return new ModelMapper().map(storedUser, UserRest.class);
+    }
+
+    @Benchmark
+    public UserRest createUser_userMapper() {
+        UserMapper userMapper = UserMapper.INSTANCE;
+        UserDto userDto = userMapper.toUserDto(userDetails);
+        UserEntity entity = userMapper.toUserEntity(userDto);
+        UserDto storedUser = userMapper.toUserDto(entity);
+        return userMapper.toUserRest(storedUser);
+    }
+
+    //GET /users with the default limit of 2 : entity list -> dto list -> rest list
+    @Benchmark
+    public List<UserRest> getUsers_modelMapper() {
+        Type dtoListType = new TypeToken<List<UserDto>>() {
+        }.getType();
+        List<UserDto> userDtos = new ModelMapper().map(userEntities, dtoListType);
+
+        Type restListType = new TypeToken<List<UserRest>>() {
+        }.getType();
+        return new ModelMapper().map(userDtos, restListType);
+    }
+
+    //the repository now selects the rows straight into UserDto (findUserDtosBy), so only dto list -> rest list is left to map.
+    @Benchmark
+    public List<UserRest> getUsers_userMapper() {
+        return UserMapper.INSTANCE.toUserRestList(userDtos);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserMapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,142 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/* Performance regression gate : drives create, login and list traffic from many concurrent clients (sharing kept-alive connections, see HttpLoadGenerator)
+and fails when p50, p99 or p99.9 latency or throughput are worse than the thresholds in load-test.properties. any of them can be overridden with a system
+property of the same name. tagged 'load', so it only runs with the load-test profile :
+
+    mvn -Pload-test test [-Dusers.load-test.concurrency=64] [-Dusers.load-test.list.max-p99-ms=100]
+
+passwords are hashed with bcrypt cost 4 instead of the production cost, so the login-smoke, create and mixed scenarios gate everything a login or signup does
+around the hash (filters, lookups, inserts, token issuing) but not the hash itself, whose cost PasswordEncoderBenchmark measures. at the production cost a
+single CPU hashes too few passwords per second to run thousands of logins in a test. */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"users.security.bcrypt.strength=4", "users.security.login-throttle.enabled=false", "logging.level.root=WARN",
+                "logging.level.com.appsdeveloperblog.tutorials.junit.benchmark=INFO"})
+public class UsersLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UsersLoadTest.class);
+
+    @LocalServerPort int port;
+
+    private Properties thresholds;
+    private HttpLoadGenerator loadGenerator;
+    private String authorizationToken;
+    private final AtomicInteger createdUsers = new AtomicInteger();
+
+    @BeforeAll void setUp() throws Exception {
+        thresholds = PropertiesLoaderUtils.loadProperties(new ClassPathResource("load-test.properties"));
+        loadGenerator = new HttpLoadGenerator(intProperty("users.load-test.concurrency"));
+        authorizationToken = loadGenerator.createUserAndLogin(port);
+    }
+
+    @Test
+    @DisplayName("GET /users stays within its latency and throughput thresholds")
+    void testGetUsers_underConcurrentLoad_meetsThresholds() throws InterruptedException {
+        assertMeetsThresholds("list", request -> getUsers());
+    }
+
+    @Test
+    @DisplayName("POST /users/login at bcrypt cost 4 (smoke test) stays within its latency and throughput thresholds")
+    void testUserLoginSmoke_underConcurrentLoad_meetsThresholds() throws InterruptedException {
+        assertMeetsThresholds("login-smoke", request -> login());
+    }
+
+    @Test
+    @DisplayName("POST /users stays within its latency and throughput thresholds")
+    void testCreateUser_underConcurrentLoad_meetsThresholds() throws InterruptedException {
+        assertMeetsThresholds("create", request -> createUser());
+    }
+
+    //out of every 20 requests : 16 list, 3 login and 1 create.
+    @Test
+    @DisplayName("A mix of list, login and create stays within its latency and throughput thresholds")
+    void testMixedTraffic_underConcurrentLoad_meetsThresholds() throws InterruptedException {
+        assertMeetsThresholds("mixed", request -> {
+            int slot = request % 20;
+            if (slot == 0)
+                return createUser();
+            if (slot <= 3)
+                return login();
+            return getUsers();
+        });
+    }
+
+    private void assertMeetsThresholds(String scenario, IntFunction<HttpRequest> requestFactory) throws InterruptedException {
+        //arrange
+        loadGenerator.run(intProperty("users.load-test.warmup-requests"), requestFactory);
+
+        //act
+        HttpLoadGenerator.Result result = loadGenerator.run(intProperty("users.load-test.requests"), requestFactory);
+        LOG.info("load test {} : {}", scenario, result);
+
+        //assert
+        String prefix = "users.load-test." + scenario + ".";
+        assertAll(scenario,
+                () -> assertEquals(0, result.getErrors(), "no request should fail"),
+                () -> assertTrue(result.getLatencyMillis(50) <= doubleProperty(prefix + "max-p50-ms"),
+                        "p50 latency " + result.getLatencyMillis(50) + "ms is above " + doubleProperty(prefix + "max-p50-ms") + "ms"),
+                () -> assertTrue(result.getLatencyMillis(99) <= doubleProperty(prefix + "max-p99-ms"),
+                        "p99 latency " + result.getLatencyMillis(99) + "ms is above " + doubleProperty(prefix + "max-p99-ms") + "ms"),
+                () -> assertTrue(result.getLatencyMillis(99.9) <= doubleProperty(prefix + "max-p999-ms"),
+                        "p99.9 latency " + result.getLatencyMillis(99.9) + "ms is above " + doubleProperty(prefix + "max-p999-ms") + "ms"),
+                () -> assertTrue(result.getThroughputPerSecond() >= doubleProperty(prefix + "min-throughput"),
+                        "throughput " + result.getThroughputPerSecond() + "/s is below " + doubleProperty(prefix + "min-throughput") + "/s"));
+    }
+
+    private HttpRequest getUsers() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users?limit=10"))
+                .header(SecurityConstants.HEADER_STRING, authorizationToken)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest login() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"load@test.com\",\"password\":\"12345678\"}"))
+                .build();
+    }
+
+    private HttpRequest createUser() {
+        String user = "{\"firstName\":\"kalana\",\"lastName\":\"sandakelum\",\"email\":\"load" + createdUsers.incrementAndGet()
+                + "@test.com\",\"password\":\"12345678\",\"repeatPassword\":\"12345678\"}";
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(user))
+                .build();
+    }
+
+    private int intProperty(String name) {
+        return Integer.parseInt(property(name));
+    }
+
+    private double doubleProperty(String name) {
+        return Double.parseDouble(property(name));
+    }
+
+    private String property(String name) {
+        String value = System.getProperty(name, thresholds.getProperty(name));
+        if (value == null)
+            throw new IllegalStateException("No " + name + " in load-test.properties");
+        return value.trim();
+    }
+}
@@ -0,0 +1,71 @@
+package com.appsdeveloperblog.tutorials.junit.benchmark;
+
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Cost of the @Valid check on the UserDetailsRequestModel body of POST /users, for a valid request and for one that breaks every constraint.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserDetailsRequestModel validUserDetails;
+    private UserDetailsRequestModel invalidUserDetails;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validUserDetails = new UserDetailsRequestModel();
+        validUserDetails.setFirstName("kalana");
+        validUserDetails.setLastName("sandakelum");
+        validUserDetails.setEmail("kalana@test.com");
+        validUserDetails.setPassword("12345678");
+        validUserDetails.setRepeatPassword("12345678");
+
+        invalidUserDetails = new UserDetailsRequestModel();
+        invalidUserDetails.setFirstName("k");
+        invalidUserDetails.setLastName("s");
+        invalidUserDetails.setEmail("not-an-email");
+        invalidUserDetails.setPassword("1234");
+        invalidUserDetails.setRepeatPassword("1234");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDetailsRequestModel>> validate_validRequest() {
+        return validator.validate(validUserDetails);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UserDetailsRequestModel>> validate_invalidRequest() {
+        return validator.validate(invalidUserDetails);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.appsdeveloperblog.tutorials.junit.io;
 
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatementCount;
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatements;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +16,7 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
+@SqlStatementCount
 public class UserEntityIntegrationTest {
 
     @Autowired TestEntityManager testEntityManager;
@@ -32,11 +35,12 @@ public class UserEntityIntegrationTest {
     //positive scenarios
     @Test
     @DisplayName("User can be persisted")
-    void testUserEntity_whenValidUserDetailsProvided_shouldReturnsStoredUserDetails() {
+    void testUserEntity_whenValidUserDetailsProvided_shouldReturnsStoredUserDetails(SqlStatements sqlStatements) {
         //act
         UserEntity storedUser = testEntityManager.persistAndFlush(userEntity);
 
         //assert
+        sqlStatements.assertInsertCount(1).assertStatementCount(1);
         Assertions.assertTrue(storedUser.getId() > 0);
         Assertions.assertEquals(userEntity.getUserId(), storedUser.getUserId());
         Assertions.assertEquals(userEntity.getFirstName(), storedUser.getFirstName());
@@ -67,6 +71,24 @@ public class UserEntityIntegrationTest {
         }, "Expected PersistenceException to be thrown here");
     }
 
+    @Test
+    @DisplayName("Email cannot be duplicate")
+    void testUserEntity_whenExistingEmailProvided_shouldThrowException() {
+        // Arrange: Create and Persist a new User Entity with the same email
+        UserEntity newEntity = new UserEntity();
+        newEntity.setUserId(UUID.randomUUID().toString());
+        newEntity.setEmail(userEntity.getEmail());
+        newEntity.setFirstName("test");
+        newEntity.setLastName("test");
+        newEntity.setEncryptedPassword("test");
+        testEntityManager.persistAndFlush(newEntity);
+
+        // Act & Assert
+        assertThrows(PersistenceException.class, ()-> {
+            testEntityManager.persistAndFlush(userEntity);
+        }, "Expected PersistenceException to be thrown here");
+    }
+
     @Test
     @DisplayName("User first name is too long")
     void testUserEntity_whenFirstNameIsTooLong_shouldThrowException() {
@@ -1,5 +1,8 @@
 package com.appsdeveloperblog.tutorials.junit.io;
 
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatementCount;
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatements;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -7,13 +10,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 //Test if the JPQL query method that we've created in the JPA repository works well. (to validate query that we've provided above the method name does work)
 
 @DataJpaTest
+@SqlStatementCount
 public class UsersRepositoryTest {
 
     @Autowired UsersRepository usersRepository;
@@ -95,4 +103,108 @@ public class UsersRepositoryTest {
         Assertions.assertEquals(userId2, storedUser.getUserId(), "returned userId does not match the expected value");
     }
 
+    @Test
+    @DisplayName("users can be listed without their password hash")
+    void testFindUserDtosBy_whenMoreUsersThanPageSize_returnsPublicColumnsOnly(SqlStatements sqlStatements) {
+        //act
+        Slice<UserDto> firstSlice = usersRepository.findUserDtosBy(PageRequest.of(0, 1));
+        Slice<UserDto> lastSlice = usersRepository.findUserDtosBy(PageRequest.of(1, 1));
+        UserDto user = firstSlice.getContent().get(0);
+
+        //assert
+        //a slice reads one row more than it returns instead of counting all rows, so each page is exactly one SELECT.
+        sqlStatements.assertSelectCount(2).assertStatementCount(2);
+        Assertions.assertEquals(1, firstSlice.getContent().size(), "first slice should contain exactly one user");
+        Assertions.assertTrue(firstSlice.hasNext(), "first slice should report a next slice");
+        Assertions.assertFalse(lastSlice.hasNext(), "last slice should not report a next slice");
+        Assertions.assertEquals(usersRepository.findByEmail(email1).getId(), user.getId(), "listed user should carry its id");
+        Assertions.assertEquals(userId1, user.getUserId(), "listed user should carry its userId");
+        Assertions.assertEquals("kalana", user.getFirstName(), "listed user should carry its first name");
+        Assertions.assertEquals("sandakelum", user.getLastName(), "listed user should carry its last name");
+        Assertions.assertEquals(email1, user.getEmail(), "listed user should carry its email");
+        Assertions.assertNull(user.getEncryptedPassword(), "listed user should not carry the password hash");
+    }
+
+    @Test
+    @DisplayName("users can be listed after a given id without their password hash")
+    void testFindUserDtosByIdGreaterThan_whenGivenLastSeenId_returnsNextUsersInIdOrder(SqlStatements sqlStatements) {
+        //act
+        List<UserDto> firstPage = usersRepository.findUserDtosByIdGreaterThan(0L, PageRequest.of(0, 1));
+        List<UserDto> secondPage = usersRepository.findUserDtosByIdGreaterThan(firstPage.get(0).getId(), PageRequest.of(0, 1));
+        SqlStatements lastPageStatements = sqlStatements.fromNow();
+        List<UserDto> lastPage = usersRepository.findUserDtosByIdGreaterThan(secondPage.get(0).getId(), PageRequest.of(0, 1));
+
+        //assert
+        sqlStatements.assertSelectCount(3);
+        lastPageStatements.assertStatementCount(1);
+        Assertions.assertEquals(1, firstPage.size(), "first page should contain exactly one user");
+        Assertions.assertEquals(1, secondPage.size(), "second page should contain exactly one user");
+        Assertions.assertEquals(email1, firstPage.get(0).getEmail(), "first page should start with the first user");
+        Assertions.assertEquals(email2, secondPage.get(0).getEmail(), "second page should continue with the second user");
+        Assertions.assertTrue(lastPage.isEmpty(), "there should be no users after the second user");
+        Assertions.assertNull(secondPage.get(0).getEncryptedPassword(), "listed user should not carry the password hash");
+    }
+
+    @Test
+    @DisplayName("all users can be streamed")
+    void testStreamAllBy_whenUsersExist_streamsAllUsersInIdOrder() {
+        //act
+        List<String> emails;
+        try (Stream<UserEntity> users = usersRepository.streamAllBy()) {
+            emails = users.map(UserEntity::getEmail).collect(Collectors.toList());
+        }
+
+        //assert
+        Assertions.assertEquals(List.of(email1, email2), emails, "all users should be streamed in id order");
+    }
+
+    @Test
+    @DisplayName("email domain search returns the same users as the old LIKE query")
+    void testFindUsersWithEmailEndsWith_whenComparedWithLikeQuery_returnsSameUsers() {
+        //arrange : users in a few different domains, on top of the two '@test.com' users.
+        String[] emails = { "lime@gmail.com", "nimal@live.com", "sunil@gmail.com", "kamal@test.org" };
+        for (String email : emails) {
+            UserEntity user = new UserEntity();
+            user.setUserId(UUID.randomUUID().toString());
+            user.setFirstName("first");
+            user.setLastName("last");
+            user.setEmail(email);
+            user.setEncryptedPassword("12345678");
+            testEntityManager.persistAndFlush(user);
+        }
+
+        for (String emailDomainName : new String[] { "@test.com", "@gmail.com", "@live.com", "@test.org", "@yahoo.com" }) {
+            //act
+            List<String> expected = testEntityManager.getEntityManager()
+                    .createQuery("select user from UserEntity user where user.email like :emailDomain order by user.id", UserEntity.class)
+                    .setParameter("emailDomain", "%" + emailDomainName)
+                    .getResultStream().map(UserEntity::getEmail).collect(Collectors.toList());
+            List<String> actual = usersRepository.findUsersWithEmailEndsWith(emailDomainName)
+                    .stream().map(UserEntity::getEmail).sorted().collect(Collectors.toList());
+
+            //assert
+            Assertions.assertEquals(expected.stream().sorted().collect(Collectors.toList()), actual, "users found for " + emailDomainName + " do not match the LIKE query");
+        }
+    }
+
+    @Test
+    @DisplayName("email domain is normalized")
+    void testFindByEmailEndingWith_whenDomainHasDifferentCase_returnsUser() {
+        //arrange
+        UserEntity user = new UserEntity();
+        user.setUserId(UUID.randomUUID().toString());
+        user.setFirstName("limesha");
+        user.setLastName("wanniarachchi");
+        user.setEmail("lime@GMail.com");
+        user.setEncryptedPassword("12345678");
+        testEntityManager.persistAndFlush(user);
+
+        //act
+        UserEntity storedUser = usersRepository.findByEmailEndingWith("@gmail.com");
+
+        //assert
+        Assertions.assertNotNull(storedUser, "UserEntity object should not be null");
+        Assertions.assertEquals("gmail.com", storedUser.getEmailDomain(), "email domain should be stored in lower case");
+    }
+
 }
@@ -0,0 +1,152 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.PasswordEncoderSaturatedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class AuthenticationFilterTest {
+
+    private AuthenticationManager authenticationManager;
+    private AuthenticationFilter authenticationFilter;
+
+    @BeforeEach
+    void setup() {
+        authenticationManager = Mockito.mock(AuthenticationManager.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, 2, 1, 100, 100, 1000, 4, meterRegistry);
+        authenticationFilter = new AuthenticationFilter(authenticationManager,
+                new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 864000000L), loginRateLimiter, 256, meterRegistry);
+        authenticationFilter.setFilterProcessesUrl("/users/login");
+    }
+
+    @Test
+    @DisplayName("Login body is bound to email and password")
+    void testDoFilter_whenValidLoginBody_authenticatesWithCredentials() throws Exception {
+        //arrange
+        Mockito.when(authenticationManager.authenticate(Mockito.any()))
+                .thenReturn(new UsernamePasswordAuthenticationToken(new UserPrincipal("user-id", "test@test.com", "hash", new ArrayList<>()), null, new ArrayList<>()));
+        MockHttpServletRequest request = loginRequest("{\"email\":\"test@test.com\",\"password\":\"12345678\",\"rememberMe\":true}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(request, response, new MockFilterChain());
+
+        //assert
+        ArgumentCaptor<Authentication> captor = ArgumentCaptor.forClass(Authentication.class);
+        Mockito.verify(authenticationManager).authenticate(captor.capture());
+        Assertions.assertEquals("test@test.com", captor.getValue().getPrincipal(), "email should be passed as the principal");
+        Assertions.assertEquals("12345678", captor.getValue().getCredentials(), "password should be passed as the credentials");
+        Assertions.assertNotNull(response.getHeader(SecurityConstants.HEADER_STRING), "response should carry the token");
+    }
+
+    @Test
+    @DisplayName("Oversized login body is rejected with 413")
+    void testDoFilter_whenLoginBodyTooLarge_returns413() throws Exception {
+        //arrange
+        MockHttpServletRequest request = loginRequest("{\"email\":\"test@test.com\",\"password\":\"" + "x".repeat(512) + "\"}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(request, response, new MockFilterChain());
+
+        //assert
+        Assertions.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus(), "oversized login body should be rejected");
+        Mockito.verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    @DisplayName("Oversized login body without Content-Length is rejected with 413")
+    void testDoFilter_whenChunkedLoginBodyTooLarge_returns413() throws Exception {
+        //arrange
+        MockHttpServletRequest chunkedRequest = new MockHttpServletRequest("POST", "/users/login") {
+            @Override public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunkedRequest.setServletPath("/users/login");
+        chunkedRequest.setContentType("application/json");
+        chunkedRequest.setContent(("{\"email\":\"test@test.com\",\"password\":\"" + "x".repeat(512) + "\"}").getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(chunkedRequest, response, new MockFilterChain());
+
+        //assert
+        Assertions.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus(), "oversized login body should be rejected while it is read");
+        Mockito.verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    @DisplayName("Malformed login body is rejected with 400")
+    void testDoFilter_whenLoginBodyIsNotJson_returns400() throws Exception {
+        //arrange
+        MockHttpServletRequest request = loginRequest("{\"email\":");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(request, response, new MockFilterChain());
+
+        //assert
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST.value(), response.getStatus(), "malformed login body should be rejected");
+        Mockito.verifyNoInteractions(authenticationManager);
+    }
+
+    @Test
+    @DisplayName("Throttled login is rejected with 429 before authentication")
+    void testDoFilter_whenEmailThrottled_returns429() throws Exception {
+        //arrange
+        Mockito.when(authenticationManager.authenticate(Mockito.any())).thenThrow(new BadCredentialsException("Bad credentials"));
+        for (int i = 0; i < 2; i++)
+            authenticationFilter.doFilter(loginRequest("{\"email\":\"test@test.com\",\"password\":\"wrong\"}"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(loginRequest("{\"email\":\"Test@Test.com\",\"password\":\"wrong\"}"), response, new MockFilterChain());
+
+        //assert
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus(), "third login for the same email should be throttled");
+        Assertions.assertNotNull(response.getHeader("Retry-After"), "throttled login should say when to retry");
+        Mockito.verify(authenticationManager, Mockito.times(2)).authenticate(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Login is rejected with 503 while the password encoder is saturated")
+    void testDoFilter_whenPasswordEncoderSaturated_returns503WithRetryAfter() throws Exception {
+        //arrange : DaoAuthenticationProvider lets the encoder's exception out of authenticate() as it is.
+        Mockito.when(authenticationManager.authenticate(Mockito.any()))
+                .thenThrow(new PasswordEncoderSaturatedException("Too many password checks in progress, try again later"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //act
+        authenticationFilter.doFilter(loginRequest("{\"email\":\"test@test.com\",\"password\":\"12345678\"}"), response, new MockFilterChain());
+
+        //assert
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus(), "saturated encoder should answer 503, not 401");
+        Assertions.assertEquals("1", response.getHeader("Retry-After"), "saturated encoder should say when to retry");
+        Assertions.assertNull(response.getHeader(SecurityConstants.HEADER_STRING), "no token should be issued");
+    }
+
+    private static MockHttpServletRequest loginRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/login");
+        request.setServletPath("/users/login");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,169 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.PasswordEncoderSaturatedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedPasswordEncoderTest {
+
+    BoundedPasswordEncoder boundedPasswordEncoder;
+    ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach void tearDown() {
+        boundedPasswordEncoder.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("password can be encoded and matched")
+    void testMatches_whenPasswordEncodedOnLane_returnsTrue() {
+        //arrange
+        boundedPasswordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1);
+
+        //act
+        String encodedPassword = boundedPasswordEncoder.encode("12345678");
+
+        //assert
+        Assertions.assertTrue(boundedPasswordEncoder.matches("12345678", encodedPassword), "encoded password should match the raw password");
+        Assertions.assertFalse(boundedPasswordEncoder.matches("87654321", encodedPassword), "encoded password should not match another password");
+    }
+
+    @Test
+    @DisplayName("passwords encoded together come back in order, also when the lane is saturated")
+    void testEncodeAll_whenMorePasswordsThanThreadsAndQueue_returnsHashesInOrder() {
+        //arrange : two threads and a queue of one take fewer passwords than encodeAll hands over, so some are turned away and tried again.
+        boundedPasswordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 1);
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            passwords.add("password" + i);
+
+        //act
+        List<String> encodedPasswords = boundedPasswordEncoder.encodeAll(passwords);
+
+        //assert
+        Assertions.assertEquals(passwords.size(), encodedPasswords.size(), "every password should have been encoded");
+        for (int i = 0; i < passwords.size(); i++)
+            Assertions.assertTrue(boundedPasswordEncoder.matches(passwords.get(i), encodedPasswords.get(i)), "hash " + i + " should be of password " + i);
+    }
+
+    /* the delegate waits instead of hashing, the way BCrypt occupies a core of its own for a while, so the speed-up does not depend on how many CPUs the
+    machine running the test has. */
+    @Test
+    @DisplayName("encoding many passwords gets faster with more threads")
+    void testEncodeAll_whenMoreThreads_encodesFaster() {
+        //arrange
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            passwords.add("password" + i);
+
+        //act
+        long oneThreadMillis = encodeAllMillis(1, passwords);
+        long fourThreadsMillis = encodeAllMillis(4, passwords);
+
+        //assert
+        Assertions.assertTrue(oneThreadMillis >= 16 * 20, "one thread should encode the passwords one after another, took " + oneThreadMillis + "ms");
+        Assertions.assertTrue(fourThreadsMillis < oneThreadMillis / 2,
+                "four threads should encode at least twice as fast as one, took " + fourThreadsMillis + "ms against " + oneThreadMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("saturated lane rejects new work")
+    void testEncode_whenThreadAndQueueAreBusy_throwsPasswordEncoderSaturatedException() throws InterruptedException {
+        //arrange : one thread and a queue of one, both taken by callers that block until released.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        boundedPasswordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release), 1, 1);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        boundedPasswordEncoder.bindTo(meterRegistry);
+
+        callers.submit(() -> boundedPasswordEncoder.encode("12345678"));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS), "first caller should be running on the lane");
+        callers.submit(() -> boundedPasswordEncoder.encode("12345678"));
+        waitForQueueDepth(1);
+
+        //act & assert
+        Assertions.assertThrows(PasswordEncoderSaturatedException.class, () -> {
+            boundedPasswordEncoder.encode("12345678");
+        }, "was expecting a PasswordEncoderSaturatedException to be thrown.");
+        Assertions.assertEquals(1, boundedPasswordEncoder.getRejectedCount(), "there should be exactly one rejected call");
+        Assertions.assertEquals(1, meterRegistry.get("users.security.password.encoder.rejected").functionCounter().count(),
+                "rejected call should be published as a meter");
+        Assertions.assertEquals(1, meterRegistry.get("executor.queued").tag("name", "passwordEncoder").gauge().value(),
+                "waiting call should be published as the queue depth");
+
+        release.countDown();
+    }
+
+    private long encodeAllMillis(int threads, List<String> passwords) {
+        boundedPasswordEncoder = new BoundedPasswordEncoder(new SlowPasswordEncoder(20), threads, 64);
+        long start = System.nanoTime();
+        boundedPasswordEncoder.encodeAll(passwords);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boundedPasswordEncoder.shutdown();
+        return elapsedMillis;
+    }
+
+    private void waitForQueueDepth(int queueDepth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (boundedPasswordEncoder.getQueueDepth() < queueDepth && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+
+    private static class SlowPasswordEncoder implements PasswordEncoder {
+        private final long millis;
+
+        SlowPasswordEncoder(long millis) {
+            this.millis = millis;
+        }
+
+        @Override public String encode(CharSequence rawPassword) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoginRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Email bucket allows its capacity, then throttles")
+    void testAcquireForEmail_whenCapacityUsed_throwsLoginThrottledException() {
+        //arrange
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, 3, 6, 100, 100, 1000, 4, meterRegistry, nanoTime::get);
+        for (int i = 0; i < 3; i++)
+            loginRateLimiter.acquireForEmail("test@test.com");
+
+        //act
+        LoginThrottledException thrown = Assertions.assertThrows(LoginThrottledException.class,
+                () -> loginRateLimiter.acquireForEmail("TEST@test.com"), "fourth attempt should be throttled");
+
+        //assert
+        Assertions.assertEquals(10, thrown.getRetryAfterSeconds(), "one token refills every 10 seconds");
+        Assertions.assertEquals(3, meterRegistry.get("users.security.login.throttle").tag("key", "email").tag("outcome", "allowed").counter().count(),
+                "allowed attempts should be counted");
+        Assertions.assertEquals(1, meterRegistry.get("users.security.login.throttle").tag("key", "email").tag("outcome", "rejected").counter().count(),
+                "rejected attempts should be counted");
+    }
+
+    @Test
+    @DisplayName("Bucket refills over time")
+    void testAcquireForEmail_whenRefillIntervalPassed_allowsAgain() {
+        //arrange
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, 1, 6, 100, 100, 1000, 4, meterRegistry, nanoTime::get);
+        loginRateLimiter.acquireForEmail("test@test.com");
+        Assertions.assertThrows(LoginThrottledException.class, () -> loginRateLimiter.acquireForEmail("test@test.com"));
+
+        //act
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        //assert
+        Assertions.assertDoesNotThrow(() -> loginRateLimiter.acquireForEmail("test@test.com"), "a token should have refilled after 10 seconds");
+    }
+
+    @Test
+    @DisplayName("Clients and emails have their own buckets")
+    void testAcquire_whenDifferentKeys_throttlesIndependently() {
+        //arrange
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, 1, 1, 1, 1, 1000, 4, meterRegistry, nanoTime::get);
+        loginRateLimiter.acquireForEmail("test@test.com");
+        loginRateLimiter.acquireForClient("10.0.0.1");
+
+        //act and assert
+        Assertions.assertDoesNotThrow(() -> loginRateLimiter.acquireForEmail("other@test.com"), "another email should have its own bucket");
+        Assertions.assertDoesNotThrow(() -> loginRateLimiter.acquireForClient("10.0.0.2"), "another client should have its own bucket");
+        Assertions.assertDoesNotThrow(() -> loginRateLimiter.acquireForClient("test@test.com"), "client and email buckets should not be shared");
+        Assertions.assertThrows(LoginThrottledException.class, () -> loginRateLimiter.acquireForClient("10.0.0.1"), "the used client should be throttled");
+    }
+
+    @Test
+    @DisplayName("Bucket count stays within max-keys")
+    void testAcquireForClient_whenManyClients_staysBounded() {
+        //arrange
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(true, 5, 60, 5, 60, 64, 4, meterRegistry, nanoTime::get);
+
+        //act
+        for (int i = 0; i < 10000; i++) {
+            loginRateLimiter.acquireForClient("10.0." + (i / 256) + "." + (i % 256));
+            nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        //assert
+        Assertions.assertTrue(loginRateLimiter.size() <= 64, "limiter should hold at most max-keys client buckets, held " + loginRateLimiter.size());
+        Assertions.assertEquals(loginRateLimiter.size(), meterRegistry.get("users.security.login.throttle.buckets").tag("key", "client").gauge().value(),
+                "bucket gauge should report the bucket count");
+    }
+
+    @Test
+    @DisplayName("Disabled limiter never throttles")
+    void testAcquireForEmail_whenDisabled_neverThrottles() {
+        //arrange
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(false, 1, 1, 1, 1, 1000, 4, meterRegistry, nanoTime::get);
+
+        //act and assert
+        for (int i = 0; i < 10; i++) {
+            loginRateLimiter.acquireForEmail("test@test.com");
+            loginRateLimiter.acquireForClient("10.0.0.1");
+        }
+        Assertions.assertEquals(0, loginRateLimiter.size(), "disabled limiter should not keep buckets");
+    }
+}
@@ -0,0 +1,136 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TokenServiceTest {
+
+    @Test
+    @DisplayName("issued token can be verified by jjwt with the configured secret")
+    void testIssueToken_whenParsedWithJjwt_returnsSubjectAndExpiry() {
+        //arrange
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 864000000L);
+        long before = System.currentTimeMillis();
+
+        //act
+        String token = tokenService.issueToken("test@test.com");
+        Claims claims = Jwts.parser().setSigningKey(SecurityConstants.TOKEN_SECRET).parseClaimsJws(token).getBody();
+
+        //assert
+        Assertions.assertEquals("test@test.com", claims.getSubject(), "token subject should be the user name");
+        Assertions.assertEquals(SignatureAlgorithm.HS512.getValue(), Jwts.parser().setSigningKey(SecurityConstants.TOKEN_SECRET).parseClaimsJws(token)
+                .getHeader().getAlgorithm(), "token should be signed with HS512");
+        Assertions.assertTrue(Math.abs(claims.getExpiration().getTime() - (before + 864000000L)) < 2000, "token should expire after the configured time");
+    }
+
+    @Test
+    @DisplayName("tokens issued concurrently are all signed correctly")
+    void testIssueToken_whenIssuedConcurrently_returnsValidTokens() throws Exception {
+        //arrange : every thread waits on the latch, so they take Macs from the pool together.
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 864000000L);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String subject = "user" + i + "@test.com";
+            results.add(executor.submit(() -> {
+                start.await();
+                List<String> tokens = new ArrayList<>();
+                for (int j = 0; j < 200; j++)
+                    tokens.add(tokenService.issueToken(subject));
+                return tokens;
+            }));
+        }
+
+        //act
+        start.countDown();
+        List<List<String>> tokens = new ArrayList<>();
+        for (Future<List<String>> result : results)
+            tokens.add(result.get());
+        executor.shutdown();
+
+        //assert
+        for (int i = 0; i < threads; i++) {
+            for (String token : tokens.get(i))
+                Assertions.assertEquals("user" + i + "@test.com", tokenService.parseClaims(token).getSubject(),
+                        "token signed while other threads were signing should verify with its own subject");
+        }
+    }
+
+    @Test
+    @DisplayName("token issued by jjwt can be parsed")
+    void testParseClaims_whenTokenIssuedByJjwt_returnsClaims() {
+        //arrange
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 864000000L);
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SecurityConstants.TOKEN_SECRET)
+                .compact();
+
+        //act
+        Claims claims = tokenService.parseClaims(token);
+
+        //assert
+        Assertions.assertEquals("test@test.com", claims.getSubject(), "token subject should be read back");
+    }
+
+    @Test
+    @DisplayName("subject is escaped in the token payload")
+    void testIssueToken_whenSubjectNeedsEscaping_returnsSameSubject() {
+        //arrange
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS256", 60000L);
+        String subject = "\"quoted\"\\name\u00e9@test.com";
+
+        //act
+        Claims claims = tokenService.parseClaims(tokenService.issueToken(subject));
+
+        //assert
+        Assertions.assertEquals(subject, claims.getSubject(), "subject with quotes, backslashes and non-ASCII characters should be read back unchanged");
+    }
+
+    @Test
+    @DisplayName("token signed with another secret is rejected")
+    void testParseClaims_whenSignedWithAnotherSecret_throwsSignatureException() {
+        //arrange
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", 60000L);
+        String token = new TokenService("b3RoZXJTZWNyZXQ=", "HS512", 60000L).issueToken("test@test.com");
+
+        //act & assert
+        Assertions.assertThrows(SignatureException.class, () -> tokenService.parseClaims(token), "token signed with another secret should be rejected");
+    }
+
+    @Test
+    @DisplayName("expired token is rejected")
+    void testParseClaims_whenTokenExpired_throwsExpiredJwtException() {
+        //arrange
+        TokenService tokenService = new TokenService(SecurityConstants.TOKEN_SECRET, "HS512", -60000L);
+        String token = tokenService.issueToken("test@test.com");
+
+        //act & assert
+        Assertions.assertThrows(ExpiredJwtException.class, () -> tokenService.parseClaims(token), "expired token should be rejected");
+    }
+
+    @Test
+    @DisplayName("only HMAC algorithms can be configured")
+    void testTokenService_whenAlgorithmIsNotHmac_throwsIllegalArgumentException() {
+        //act & assert
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenService(SecurityConstants.TOKEN_SECRET, "RS256", 60000L),
+                "an RSA algorithm cannot sign with the shared secret");
+    }
+}
@@ -0,0 +1,94 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VerifiedTokenCacheTest {
+
+    VerifiedTokenCache verifiedTokenCache;
+    MeterRegistry meterRegistry;
+
+    @BeforeEach void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(2, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("verified token is served from the cache")
+    void testGetSubject_whenTokenWasCached_returnsSubjectAndCountsHit() {
+        //arrange
+        verifiedTokenCache.put("token1", "test@test.com", System.currentTimeMillis() + 60000);
+
+        //act
+        String subject = verifiedTokenCache.getSubject("token1");
+
+        //assert
+        Assertions.assertEquals("test@test.com", subject, "cached subject does not match the expected value");
+        Assertions.assertEquals(1, verifiedTokenCache.getHitCount(), "there should be exactly one cache hit");
+        Assertions.assertEquals(0, verifiedTokenCache.getMissCount(), "there should be no cache misses");
+    }
+
+    @Test
+    @DisplayName("unknown token is a cache miss")
+    void testGetSubject_whenTokenWasNotCached_returnsNullAndCountsMiss() {
+        //act
+        String subject = verifiedTokenCache.getSubject("token1");
+
+        //assert
+        Assertions.assertNull(subject, "unknown token should not have a subject");
+        Assertions.assertEquals(1, verifiedTokenCache.getMissCount(), "there should be exactly one cache miss");
+    }
+
+    @Test
+    @DisplayName("expired token is not served")
+    void testGetSubject_whenTokenHasExpired_returnsNullAndCountsMiss() throws InterruptedException {
+        //arrange
+        verifiedTokenCache.put("token1", "test@test.com", System.currentTimeMillis() + 20);
+        Thread.sleep(40);
+
+        //act
+        String subject = verifiedTokenCache.getSubject("token1");
+
+        //assert
+        Assertions.assertNull(subject, "expired token should not be served from the cache");
+        Assertions.assertEquals(1, verifiedTokenCache.getMissCount(), "expired token should count as a cache miss");
+    }
+
+    @Test
+    @DisplayName("cache does not grow beyond its maximum size")
+    void testPut_whenCacheIsFull_keepsSizeWithinBound() {
+        //act
+        for (int i = 0; i < 10; i++)
+            verifiedTokenCache.put("token" + i, "test@test.com", System.currentTimeMillis() + 60000);
+
+        //assert
+        Assertions.assertTrue(verifiedTokenCache.size() <= 2, "cache should not hold more than 2 tokens");
+    }
+
+    @Test
+    @DisplayName("cache filled past its maximum size evicts entries")
+    void testPut_whenFilledPastMaxSize_evictsEntriesAndPublishesMeters() {
+        //arrange : a registry of its own, since the cache built in setUp already registered the same meters.
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(100, meterRegistry);
+
+        //act
+        for (int i = 0; i < 1000; i++)
+            verifiedTokenCache.put("token" + i, "test@test.com", System.currentTimeMillis() + 60000);
+        verifiedTokenCache.getSubject("token999");
+        verifiedTokenCache.getSubject("unknown");
+
+        //assert
+        Assertions.assertTrue(verifiedTokenCache.size() <= 100, "cache should not hold more than 100 tokens, held " + verifiedTokenCache.size());
+        Assertions.assertTrue(meterRegistry.get("cache.evictions").tag("cache", "verifiedTokens").functionCounter().count() >= 900,
+                "evictions should be published as a meter");
+        Assertions.assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "verifiedTokens").tag("result", "miss").functionCounter().count(),
+                "misses should be published as a meter");
+        Assertions.assertTrue(meterRegistry.get("cache.size").tag("cache", "verifiedTokens").gauge().value() <= 100,
+                "size should be published as a meter");
+    }
+}
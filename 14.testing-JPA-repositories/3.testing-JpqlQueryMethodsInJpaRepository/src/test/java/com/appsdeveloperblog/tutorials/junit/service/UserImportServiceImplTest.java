@@ -0,0 +1,177 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.UserImportQueueFullException;
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@TestPropertySource(properties = { "users.import.batch-size=2", "users.import.queue-capacity=1", "users.security.bcrypt.strength=4" })
+public class UserImportServiceImplTest {
+
+    @Autowired UserImportService userImportService;
+    @SpyBean UsersRepository usersRepository;
+
+    @Test
+    @DisplayName("users can be imported from NDJSON")
+    void testStartImport_whenNdjsonProvided_importsValidUsers() throws Exception {
+        //arrange : three valid users, one of them twice, and one with an invalid email
+        String users = "{\"firstName\":\"kalana\",\"lastName\":\"sandakelum\",\"email\":\"import1@test.com\",\"password\":\"12345678\"}\n"
+                + "{\"firstName\":\"ashani\",\"lastName\":\"sundarawadu\",\"email\":\"import2@test.com\",\"password\":\"12345678\"}\n"
+                + "{\"firstName\":\"ashani\",\"lastName\":\"sundarawadu\",\"email\":\"import2@test.com\",\"password\":\"12345678\"}\n"
+                + "{\"firstName\":\"limesha\",\"lastName\":\"wanniarachchi\",\"email\":\"import3@test.com\",\"password\":\"12345678\"}\n"
+                + "{\"firstName\":\"invalid\",\"lastName\":\"invalid\",\"email\":\"invalid\",\"password\":\"12345678\"}\n";
+
+        //act
+        UserImportJob job = userImportService.startImport(new ByteArrayInputStream(users.getBytes(StandardCharsets.UTF_8)), UserImportJob.Format.NDJSON);
+        waitUntilFinished(job);
+
+        //assert
+        Assertions.assertEquals(UserImportJob.State.COMPLETED, job.getState(), () -> "import should have completed, error: " + job.getError());
+        Assertions.assertEquals(5, job.getRowsRead(), "every row should have been read");
+        Assertions.assertEquals(3, job.getRowsImported(), "only valid and distinct users should have been imported");
+        Assertions.assertEquals(2, job.getRowsRejected(), "the duplicate and the invalid row should have been rejected");
+        Assertions.assertNotNull(usersRepository.findByEmail("import3@test.com"), "imported user should be stored");
+    }
+
+    @Test
+    @DisplayName("users can be imported from CSV")
+    void testStartImport_whenCsvProvided_importsUsers() throws Exception {
+        //arrange
+        String users = "firstName,lastName,email,password\n"
+                + "kalana,sandakelum,csv1@test.com,12345678\n"
+                + "\"ashani\",\"sundarawadu\",csv2@test.com,12345678\n";
+
+        //act
+        UserImportJob job = userImportService.startImport(new ByteArrayInputStream(users.getBytes(StandardCharsets.UTF_8)), UserImportJob.Format.CSV);
+        waitUntilFinished(job);
+
+        //assert
+        Assertions.assertEquals(UserImportJob.State.COMPLETED, job.getState(), () -> "import should have completed, error: " + job.getError());
+        Assertions.assertEquals(2, job.getRowsImported(), "both users should have been imported");
+        Assertions.assertEquals("ashani", usersRepository.findByEmail("csv2@test.com").getFirstName(), "quoted values should be unquoted");
+    }
+
+    @Test
+    @DisplayName("email taken by a concurrent signup rejects only that row")
+    void testStartImport_whenEmailTakenAfterDuplicateCheck_rejectsOnlyThatRow() throws Exception {
+        //arrange : a signup for race2@test.com commits right after the first batch has been checked for duplicates (and none of its emails were taken).
+        doAnswer(invocation -> {
+            usersRepository.save(userEntity("race2@test.com"));
+            return Collections.emptyList();
+        }).when(usersRepository).findEmailsIn(argThat((Collection<String> emails) -> emails != null && emails.contains("race2@test.com")));
+
+        String users = "firstName,lastName,email,password\n"
+                + "kalana,sandakelum,race1@test.com,12345678\n"
+                + "ashani,sundarawadu,race2@test.com,12345678\n"
+                + "limesha,wanniarachchi,race3@test.com,12345678\n";
+
+        //act
+        UserImportJob job = userImportService.startImport(new ByteArrayInputStream(users.getBytes(StandardCharsets.UTF_8)), UserImportJob.Format.CSV);
+        waitUntilFinished(job);
+
+        //assert
+        Assertions.assertEquals(UserImportJob.State.COMPLETED, job.getState(), () -> "import should have completed, error: " + job.getError());
+        Assertions.assertEquals(2, job.getRowsImported(), "the rows whose emails were still free should have been imported");
+        Assertions.assertEquals(1, job.getRowsRejected(), "only the row whose email was taken should have been rejected");
+        Assertions.assertNotNull(usersRepository.findByEmail("race1@test.com"), "row batched with the conflicting one should be stored");
+        Assertions.assertEquals("first", usersRepository.findByEmail("race2@test.com").getFirstName(), "the signup should have kept its email");
+    }
+
+    @Test
+    @DisplayName("import is rejected while the queue is full")
+    void testStartImport_whenQueueFull_throwsUserImportQueueFullException() throws Exception {
+        //arrange : the first import holds the import thread, the second one takes the only place in the queue.
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        }).when(usersRepository).findEmailsIn(argThat((Collection<String> emails) -> emails != null && emails.contains("queued1@test.com")));
+
+        UserImportJob runningJob = userImportService.startImport(csv("queued1@test.com"), UserImportJob.Format.CSV);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (runningJob.getState() != UserImportJob.State.RUNNING && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        UserImportJob queuedJob = userImportService.startImport(csv("queued2@test.com"), UserImportJob.Format.CSV);
+
+        //act & assert
+        try {
+            Assertions.assertThrows(UserImportQueueFullException.class, () -> {
+                userImportService.startImport(csv("queued3@test.com"), UserImportJob.Format.CSV);
+            }, "was expecting a UserImportQueueFullException to be thrown.");
+        } finally {
+            release.countDown();
+        }
+
+        waitUntilFinished(runningJob);
+        waitUntilFinished(queuedJob);
+        Assertions.assertEquals(UserImportJob.State.COMPLETED, runningJob.getState(), () -> "running import should have completed, error: " + runningJob.getError());
+        Assertions.assertEquals(UserImportJob.State.COMPLETED, queuedJob.getState(), "queued import should run once the import thread is free");
+        Assertions.assertNull(usersRepository.findByEmail("queued3@test.com"), "rejected import should not have been run");
+    }
+
+    @Test
+    @DisplayName("oldest finished imports are forgotten first")
+    void testStartImport_whenMoreFinishedJobsThanKept_removesOldestFinishedJob() throws Exception {
+        //arrange : 101 imports that finish one after another, one more than are kept once finished.
+        List<UserImportJob> finishedJobs = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            UserImportJob job = userImportService.startImport(emptyCsv(), UserImportJob.Format.CSV);
+            waitUntilFinished(job);
+            finishedJobs.add(job);
+        }
+
+        //act
+        UserImportJob newJob = userImportService.startImport(emptyCsv(), UserImportJob.Format.CSV);
+        waitUntilFinished(newJob);
+
+        //assert
+        Assertions.assertNull(userImportService.getImportJob(finishedJobs.get(0).getJobId()), "the import that finished first should have been forgotten");
+        for (int i = 1; i < finishedJobs.size(); i++)
+            Assertions.assertNotNull(userImportService.getImportJob(finishedJobs.get(i).getJobId()), "import " + i + " finished later and should be kept");
+        Assertions.assertNotNull(userImportService.getImportJob(newJob.getJobId()), "the new import should be kept");
+    }
+
+    private static ByteArrayInputStream emptyCsv() {
+        return new ByteArrayInputStream("firstName,lastName,email,password\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteArrayInputStream csv(String email) {
+        return new ByteArrayInputStream(("firstName,lastName,email,password\nkalana,sandakelum," + email + ",12345678\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserEntity userEntity(String email) {
+        UserEntity userEntity = new UserEntity();
+        userEntity.setUserId(UUID.randomUUID().toString());
+        userEntity.setFirstName("first");
+        userEntity.setLastName("signup");
+        userEntity.setEmail(email);
+        userEntity.setEncryptedPassword("encrypted");
+        return userEntity;
+    }
+
+    private void waitUntilFinished(UserImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+    }
+}
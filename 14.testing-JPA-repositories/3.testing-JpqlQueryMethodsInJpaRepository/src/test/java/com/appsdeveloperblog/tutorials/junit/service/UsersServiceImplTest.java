@@ -0,0 +1,214 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.UsersServiceException;
+import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@TestPropertySource(properties = "users.security.bcrypt.strength=4")
+public class UsersServiceImplTest {
+
+    @Autowired UsersService usersService;
+    @SpyBean UsersRepository usersRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    UserDto userDto;
+
+    @BeforeEach void setUp() {
+        userDto = new UserDto();
+        userDto.setFirstName("kalana");
+        userDto.setLastName("sandakelum");
+        userDto.setEmail(UUID.randomUUID() + "@test.com");
+        userDto.setPassword("12345678");
+    }
+
+    @Test
+    @DisplayName("User can be created")
+    void testCreateUser_whenValidUserDetailsProvided_returnsUserDto() {
+        //act
+        UserDto createdUser = usersService.createUser(userDto);
+
+        //assert
+        Assertions.assertNotNull(createdUser.getUserId(), "userId should have been generated");
+        Assertions.assertEquals(userDto.getEmail(), createdUser.getEmail(), "returned email is most likely incorrect");
+    }
+
+    @Test
+    @DisplayName("User with an existing email cannot be created")
+    void testCreateUser_whenEmailAlreadyExists_throwsUsersServiceException() {
+        //arrange
+        usersService.createUser(userDto);
+
+        //act & assert
+        UsersServiceException thrown = Assertions.assertThrows(UsersServiceException.class, () -> {
+            usersService.createUser(userDto);
+        }, "was expecting a UsersServiceException to be thrown.");
+        Assertions.assertEquals("Record already exists", thrown.getMessage(), "exception message is most likely incorrect");
+    }
+
+    @Test
+    @DisplayName("User with an existing email cannot be created inside a caller's transaction")
+    void testCreateUser_whenEmailAlreadyExistsInCallersTransaction_throwsUsersServiceException() {
+        //arrange
+        usersService.createUser(userDto);
+
+        //act & assert : the duplicate has to be reported by createUser itself, not when the caller's transaction commits.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            UsersServiceException thrown = Assertions.assertThrows(UsersServiceException.class, () -> {
+                usersService.createUser(userDto);
+            }, "was expecting a UsersServiceException to be thrown.");
+            Assertions.assertEquals("Record already exists", thrown.getMessage(), "exception message is most likely incorrect");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    @DisplayName("Only one of several concurrent signups with the same email succeeds")
+    void testCreateUser_whenSameEmailSignedUpConcurrently_createsExactlyOneUser() throws Exception {
+        //arrange : every thread waits on the latch, so the signups reach the database together.
+        int signups = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(signups);
+        List<Future<UserDto>> results = new ArrayList<>();
+        for (int i = 0; i < signups; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return usersService.createUser(userDto);
+            }));
+        }
+
+        //act
+        start.countDown();
+        int created = 0;
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<UserDto> result : results) {
+            try {
+                result.get();
+                created++;
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+
+        //assert
+        Assertions.assertEquals(1, created, "exactly one signup should have created the user");
+        for (Throwable failure : failures) {
+            Assertions.assertTrue(failure instanceof UsersServiceException, "duplicate signup should fail with a UsersServiceException, not " + failure);
+            Assertions.assertEquals("Record already exists", failure.getMessage(), "exception message is most likely incorrect");
+        }
+        Assertions.assertNotNull(usersRepository.findByEmail(userDto.getEmail()), "the user should have been stored once");
+    }
+
+    @Test
+    @DisplayName("User lookups by email are cached")
+    void testGetUser_whenCalledRepeatedly_queriesRepositoryOnce() {
+        //arrange
+        usersService.createUser(userDto);
+
+        //act
+        usersService.getUser(userDto.getEmail());
+        usersService.loadUserByUsername(userDto.getEmail());
+        UserDto storedUser = usersService.getUser(userDto.getEmail());
+
+        //assert
+        Assertions.assertEquals(userDto.getEmail(), storedUser.getEmail(), "returned email is most likely incorrect");
+        verify(usersRepository, times(1)).findByEmail(userDto.getEmail());
+    }
+
+    @Test
+    @DisplayName("Unknown email is cached until the user is created")
+    void testGetUser_whenUserCreatedAfterUnknownEmailLookup_returnsCreatedUser() {
+        //arrange
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            usersService.getUser(userDto.getEmail());
+        }, "was expecting a UsernameNotFoundException to be thrown.");
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> {
+            usersService.loadUserByUsername(userDto.getEmail());
+        }, "was expecting a UsernameNotFoundException to be thrown.");
+        verify(usersRepository, times(1)).findByEmail(userDto.getEmail());
+
+        //act
+        UserDto createdUser = usersService.createUser(userDto);
+        UserDto storedUser = usersService.getUser(userDto.getEmail());
+
+        //assert
+        Assertions.assertEquals(createdUser.getUserId(), storedUser.getUserId(), "created user should be found after the cache was invalidated");
+    }
+
+    @Test
+    @DisplayName("Unknown email cached while the signup commits is invalidated after the commit")
+    void testGetUser_whenLookedUpBeforeSignupCommits_returnsCreatedUserAfterCommit() {
+        //arrange : the signup runs in a transaction of its own, and another thread looks the email up before that transaction commits.
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            usersService.createUser(userDto);
+
+            Future<?> lookup = otherThread.submit(() -> usersService.getUser(userDto.getEmail()));
+            ExecutionException thrown = Assertions.assertThrows(ExecutionException.class, lookup::get, "uncommitted user should not be found yet");
+            Assertions.assertTrue(thrown.getCause() instanceof UsernameNotFoundException, "was expecting a UsernameNotFoundException to be thrown.");
+        });
+        otherThread.shutdown();
+
+        //act
+        UserDto storedUser = usersService.getUser(userDto.getEmail());
+
+        //assert
+        Assertions.assertEquals(userDto.getEmail(), storedUser.getEmail(), "created user should be found once its transaction has committed");
+    }
+
+    @Test
+    @DisplayName("User lookups by userId are cached")
+    void testGetUserByUserId_whenCalledRepeatedly_queriesRepositoryOnce() {
+        //arrange
+        UserDto createdUser = usersService.createUser(userDto);
+
+        //act
+        usersService.getUserByUserId(createdUser.getUserId());
+        UserDto storedUser = usersService.getUserByUserId(createdUser.getUserId());
+
+        //assert
+        Assertions.assertEquals(userDto.getEmail(), storedUser.getEmail(), "returned email is most likely incorrect");
+        verify(usersRepository, times(1)).findByUserId(createdUser.getUserId());
+    }
+
+    @Test
+    @DisplayName("Users count is cached until a user is created")
+    void testGetUsersCount_whenUserCreated_countsAgain() {
+        //arrange
+        long countBefore = usersService.getUsersCount();
+        usersService.getUsersCount();
+        verify(usersRepository, times(1)).count();
+
+        //act
+        usersService.createUser(userDto);
+        long countAfter = usersService.getUsersCount();
+
+        //assert
+        Assertions.assertEquals(countBefore + 1, countAfter, "count should include the created user");
+        verify(usersRepository, times(2)).count();
+    }
+}
@@ -0,0 +1,93 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TimeOrderedUserIdGeneratorTest {
+
+    @Test
+    @DisplayName("userIds are version 7 UUIDs carrying the current time")
+    void testGenerateUserId_whenCalled_returnsVersion7UuidWithTimestamp() {
+        //arrange
+        long now = 1_700_000_000_000L;
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> now);
+
+        //act
+        UUID userId = UUID.fromString(userIdGenerator.generateUserId());
+
+        //assert
+        Assertions.assertEquals(7, userId.version(), "userId should be a version 7 UUID");
+        Assertions.assertEquals(2, userId.variant(), "userId should use the RFC 4122 variant");
+        Assertions.assertEquals(now, userId.getMostSignificantBits() >>> 16, "userId should start with the unix time in milliseconds");
+    }
+
+    @Test
+    @DisplayName("userIds generated within one millisecond keep increasing")
+    void testGenerateUserId_whenClockDoesNotMove_returnsIncreasingUserIds() {
+        //arrange : more ids than the 12 bit counter holds, all in the same millisecond.
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> 1_700_000_000_000L);
+        List<String> userIds = new ArrayList<>();
+
+        //act
+        for (int i = 0; i < 10_000; i++)
+            userIds.add(userIdGenerator.generateUserId());
+
+        //assert
+        List<String> sorted = new ArrayList<>(userIds);
+        Collections.sort(sorted);
+        Assertions.assertEquals(sorted, userIds, "userIds should already be in string order");
+        Assertions.assertEquals(userIds.size(), Set.copyOf(userIds).size(), "userIds should be unique");
+    }
+
+    @Test
+    @DisplayName("userIds do not go back when the clock does")
+    void testGenerateUserId_whenClockGoesBack_returnsIncreasingUserIds() {
+        //arrange
+        long[] now = { 1_700_000_000_000L };
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator(() -> now[0]);
+
+        //act
+        String before = userIdGenerator.generateUserId();
+        now[0] -= 1000;
+        String after = userIdGenerator.generateUserId();
+
+        //assert
+        Assertions.assertTrue(after.compareTo(before) > 0, "userId generated after the clock went back should still sort last");
+    }
+
+    @Test
+    @DisplayName("userIds generated concurrently are unique")
+    void testGenerateUserId_whenCalledFromManyThreads_returnsUniqueUserIds() throws Exception {
+        //arrange
+        TimeOrderedUserIdGenerator userIdGenerator = new TimeOrderedUserIdGenerator();
+        Set<String> userIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //act
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++)
+                    userIds.add(userIdGenerator.generateUserId());
+            }));
+        for (Future<?> future : futures)
+            future.get();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //assert
+        Assertions.assertEquals(80_000, userIds.size(), "every generated userId should be unique");
+    }
+}
@@ -0,0 +1,26 @@
+package com.appsdeveloperblog.tutorials.junit.sql;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/* Put on a @DataJpaTest or @SpringBootTest class to count the SQL statements its tests send to the database : the application DataSource is wrapped in a
+counting proxy, and a test method can take a SqlStatements parameter holding what it has executed so far (statements run by @BeforeEach methods are not
+counted). for example :
+
+    @Test void testGetUsers_whenValidJwtProvided_returnsUsers(SqlStatements sqlStatements) {
+        ...
+        sqlStatements.assertSelectCount(1);
+    }                                                                                                                                                        */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@ExtendWith(SqlStatementCountExtension.class)
+@Import(SqlStatementCountConfiguration.class)
+public @interface SqlStatementCount {
+}
@@ -0,0 +1,43 @@
+package com.appsdeveloperblog.tutorials.junit.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+//wraps every DataSource of the test context in a datasource-proxy that hands each executed statement to SqlStatements.
+@TestConfiguration(proxyBeanMethods = false)
+class SqlStatementCountConfiguration {
+
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource))
+                    return bean;
+
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(new RecordingListener())
+                        .build();
+            }
+        };
+    }
+
+    private static class RecordingListener implements QueryExecutionListener {
+        @Override public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        //a JDBC batch is one round trip, so it is recorded once however many rows it carries.
+        @Override public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList)
+                SqlStatements.record(queryInfo.getQuery());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.appsdeveloperblog.tutorials.junit.sql;
+
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+//starts counting right before each test method runs (after its @BeforeEach methods), and passes the count in as a SqlStatements parameter.
+class SqlStatementCountExtension implements BeforeTestExecutionCallback, ParameterResolver {
+
+    @Override public void beforeTestExecution(ExtensionContext context) {
+        SqlStatements.clear();
+    }
+
+    @Override public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == SqlStatements.class;
+    }
+
+    @Override public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return SqlStatements.sinceTestStart();
+    }
+}
@@ -0,0 +1,89 @@
+package com.appsdeveloperblog.tutorials.junit.sql;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/* The SQL statements a test (or one step of it, see fromNow) sent through the counting DataSource of @SqlStatementCount. statements are recorded from every
+thread, so requests served by the embedded server of a RANDOM_PORT test are counted too. a failed assertion lists the statements that were executed. */
+public class SqlStatements {
+
+    private static final List<String> EXECUTED = Collections.synchronizedList(new ArrayList<>());
+
+    private final int from;
+
+    private SqlStatements(int from) {
+        this.from = from;
+    }
+
+    static void record(String sql) {
+        EXECUTED.add(sql);
+    }
+
+    static void clear() {
+        EXECUTED.clear();
+    }
+
+    //every statement executed since the test method started, including the ones executed after this call.
+    static SqlStatements sinceTestStart() {
+        return new SqlStatements(0);
+    }
+
+    //every statement executed after this call, for counting one step of a test on its own.
+    public SqlStatements fromNow() {
+        return new SqlStatements(EXECUTED.size());
+    }
+
+    public List<String> getStatements() {
+        synchronized (EXECUTED) {
+            return new ArrayList<>(EXECUTED.subList(Math.min(from, EXECUTED.size()), EXECUTED.size()));
+        }
+    }
+
+    public SqlStatements assertStatementCount(int expected) {
+        return assertCount(null, expected);
+    }
+
+    public SqlStatements assertSelectCount(int expected) {
+        return assertCount("select", expected);
+    }
+
+    public SqlStatements assertInsertCount(int expected) {
+        return assertCount("insert", expected);
+    }
+
+    public SqlStatements assertUpdateCount(int expected) {
+        return assertCount("update", expected);
+    }
+
+    public SqlStatements assertDeleteCount(int expected) {
+        return assertCount("delete", expected);
+    }
+
+    private SqlStatements assertCount(String type, int expected) {
+        List<String> statements = getStatements();
+        long actual = statements.stream().filter(sql -> type == null || isOfType(sql, type)).count();
+
+        Assertions.assertEquals(expected, actual, () -> "expected " + expected + " " + (type == null ? "SQL" : type.toUpperCase(Locale.ROOT))
+                + " statement(s) but " + actual + " were executed. all statements executed :" + describe(statements));
+        return this;
+    }
+
+    private static boolean isOfType(String sql, String type) {
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, type, 0, type.length());
+    }
+
+    private static String describe(List<String> statements) {
+        if (statements.isEmpty())
+            return " none";
+
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < statements.size(); i++)
+            description.append("\n  ").append(i + 1).append(". ").append(statements.get(i));
+        return description.toString();
+    }
+}
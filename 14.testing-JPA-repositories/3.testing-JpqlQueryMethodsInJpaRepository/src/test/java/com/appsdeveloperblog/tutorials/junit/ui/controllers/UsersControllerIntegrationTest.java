@@ -1,6 +1,8 @@
 package com.appsdeveloperblog.tutorials.junit.ui.controllers;
 
 import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatementCount;
+import com.appsdeveloperblog.tutorials.junit.sql.SqlStatements;
 import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -19,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SqlStatementCount
 public class UsersControllerIntegrationTest {
 
     @Autowired TestRestTemplate testRestTemplate;
@@ -26,7 +29,7 @@ public class UsersControllerIntegrationTest {
 
     @Test
     @DisplayName("GET /users works")
-    void testGetUsers_whenValidJwtProvided_returnsUsers() {
+    void testGetUsers_whenValidJwtProvided_returnsUsers(SqlStatements sqlStatements) {
         //arrange
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(authorizationToken);
@@ -40,6 +43,7 @@ public class UsersControllerIntegrationTest {
         // assert
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode(), "Http status code should be 200");
         assertTrue(responseEntity.getBody().size() == 1, "there should be exactly in the list");
+        sqlStatements.assertSelectCount(1).assertStatementCount(1);
     }
 
     @Order(3)
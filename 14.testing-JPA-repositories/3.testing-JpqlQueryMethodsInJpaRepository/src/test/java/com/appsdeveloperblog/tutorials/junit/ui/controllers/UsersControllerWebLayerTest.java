@@ -2,6 +2,7 @@ package com.appsdeveloperblog.tutorials.junit.ui.controllers;
 
 import com.appsdeveloperblog.tutorials.junit.service.UsersService;
 import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.shared.UsersCursor;
 import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
 import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,7 +25,9 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @WebMvcTest(controllers = UsersController.class, excludeAutoConfiguration = { SecurityAutoConfiguration.class })
 public class UsersControllerWebLayerTest {
@@ -223,4 +226,117 @@ public class UsersControllerWebLayerTest {
         Assertions.assertEquals(HttpStatus.BAD_REQUEST.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
     }
 
+    @Test @DisplayName("cursor for the next page is returned")
+    void testGetUsers_whenCursorProvided_returnsNextCursorHeader() throws Exception {
+
+        //Arrange
+        UserDto user1 = new ModelMapper().map(userDetailsRequestModel, UserDto.class);
+        user1.setId(11L);
+        UserDto user2 = new ModelMapper().map(userDetailsRequestModel, UserDto.class);
+        user2.setId(12L);
+        when(usersService.getUsersAfter(10L, 2)).thenReturn(Arrays.asList(user1, user2));
+
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/users")
+            .param("cursor", UsersCursor.encode(10L))
+            .param("limit", "2")
+            .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult mvcResult = mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.OK.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
+        Assertions.assertEquals(UsersCursor.encode(12L), mvcResult.getResponse().getHeader(UsersController.NEXT_CURSOR_HEADER), "next cursor should point after the last returned user");
+    }
+
+    @Test @DisplayName("total count is returned when asked for")
+    void testGetUsers_whenIncludeTotalRequested_returnsTotalCountHeader() throws Exception {
+
+        //Arrange
+        when(usersService.getUsersCount()).thenReturn(42L);
+
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/users")
+            .param("includeTotal", "true")
+            .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult mvcResult = mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.OK.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
+        Assertions.assertEquals("42", mvcResult.getResponse().getHeader(UsersController.TOTAL_COUNT_HEADER), "total count header is most likely incorrect");
+    }
+
+    @Test @DisplayName("users are not counted unless asked for")
+    void testGetUsers_whenIncludeTotalNotRequested_doesNotCountUsers() throws Exception {
+
+        //Arrange
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/users")
+            .accept(MediaType.APPLICATION_JSON);
+
+        //Act
+        MvcResult mvcResult = mockMvc.perform(requestBuilder).andReturn();
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.OK.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
+        Assertions.assertNull(mvcResult.getResponse().getHeader(UsersController.TOTAL_COUNT_HEADER), "total count header should not be returned");
+        verify(usersService, never()).getUsersCount();
+    }
+
+    @Test @DisplayName("users can be exported as NDJSON")
+    void testExportUsers_whenNdjsonRequested_returnsOneJsonObjectPerLine() throws Exception {
+
+        //Arrange
+        UserDto userDto = new ModelMapper().map(userDetailsRequestModel, UserDto.class);
+        userDto.setUserId(UUID.randomUUID().toString());
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(userDto);
+            return null;
+        }).when(usersService).exportUsers(any());
+
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/users/export");
+
+        //Act
+        MvcResult mvcResult = mockMvc.perform(requestBuilder).andReturn();
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.OK.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
+        Assertions.assertEquals(2, lines.length, "there should be one line per exported user");
+        UserRest exportedUser = new ObjectMapper().readValue(lines[0], UserRest.class);
+        Assertions.assertEquals(userDto.getUserId(), exportedUser.getUserId(), "exported userId is most likely incorrect");
+        Assertions.assertEquals(userDto.getEmail(), exportedUser.getEmail(), "exported email is most likely incorrect");
+    }
+
+    @Test @DisplayName("users can be exported as CSV")
+    void testExportUsers_whenCsvRequested_returnsHeaderAndOneRowPerUser() throws Exception {
+
+        //Arrange
+        userDetailsRequestModel.setLastName("sandakelum, jr");
+        UserDto userDto = new ModelMapper().map(userDetailsRequestModel, UserDto.class);
+        userDto.setUserId(UUID.randomUUID().toString());
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            return null;
+        }).when(usersService).exportUsers(any());
+
+        RequestBuilder requestBuilder = MockMvcRequestBuilders.get("/users/export")
+            .param("format", "csv");
+
+        //Act
+        MvcResult mvcResult = mockMvc.perform(requestBuilder).andReturn();
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+        //Assert
+        Assertions.assertEquals(HttpStatus.OK.value(), mvcResult.getResponse().getStatus(), "incorrect HTTP status code returned");
+        Assertions.assertTrue(mvcResult.getResponse().getContentType().startsWith("text/csv"), "export should be returned as CSV");
+        Assertions.assertEquals(2, lines.length, "there should be a header line and one line per exported user");
+        Assertions.assertEquals("userId,firstName,lastName,email", lines[0], "CSV header is most likely incorrect");
+        Assertions.assertEquals(userDto.getUserId() + ",kalana,\"sandakelum, jr\",kalana@gmail.com", lines[1],
+                "exported row is most likely incorrect, values with a comma should be quoted");
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.appsdeveloperblog.tutorials.junit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@SpringBootApplication
+public class UsersServiceReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(UsersServiceReactiveApplication.class, args);
+	}
+
+	@Bean
+	public BCryptPasswordEncoder passwordEncoder(@Value("${users.security.bcrypt.strength:10}") int strength) {
+		return new BCryptPasswordEncoder(strength);
+	}
+}
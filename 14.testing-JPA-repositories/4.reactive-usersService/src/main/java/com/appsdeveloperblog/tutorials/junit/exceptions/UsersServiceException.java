@@ -0,0 +1,8 @@
+package com.appsdeveloperblog.tutorials.junit.exceptions;
+
+public class UsersServiceException extends RuntimeException{
+    public UsersServiceException(String message)
+    {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.appsdeveloperblog.tutorials.junit.io;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/* the users table is created by schema.sql : R2DBC has no schema generation. the id is null until the row is inserted, which is how spring data r2dbc
+tells an insert from an update. */
+@Table("users")
+public class UserEntity {
+
+    @Id
+    private Long id;
+    private String userId;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String encryptedPassword;
+
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public String getUserId() {
+        return userId;
+    }
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    public String getFirstName() {
+        return firstName;
+    }
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    public String getLastName() {
+        return lastName;
+    }
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    public String getEmail() {
+        return email;
+    }
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    public String getEncryptedPassword() {
+        return encryptedPassword;
+    }
+    public void setEncryptedPassword(String encryptedPassword) {
+        this.encryptedPassword = encryptedPassword;
+    }
+}
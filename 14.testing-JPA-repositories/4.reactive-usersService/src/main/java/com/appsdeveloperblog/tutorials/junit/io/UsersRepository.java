@@ -0,0 +1,16 @@
+package com.appsdeveloperblog.tutorials.junit.io;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface UsersRepository extends ReactiveSortingRepository<UserEntity, Long> {
+    Mono<UserEntity> findByEmail(String email);
+
+    Mono<UserEntity> findByUserId(String userId);
+
+    Flux<UserEntity> findAllBy(Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+//takes the bearer token out of the Authorization header. requests without one continue unauthenticated.
+public class JwtAuthenticationConverter implements ServerAuthenticationConverter {
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String header = exchange.getRequest().getHeaders().getFirst(SecurityConstants.HEADER_STRING);
+
+        if (header == null || !header.startsWith(SecurityConstants.TOKEN_PREFIX))
+            return Mono.empty();
+
+        String token = header.substring(SecurityConstants.TOKEN_PREFIX.length());
+        return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+    }
+}
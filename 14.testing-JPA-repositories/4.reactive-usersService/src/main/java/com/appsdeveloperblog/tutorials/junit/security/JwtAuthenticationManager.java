@@ -0,0 +1,43 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+
+/* Verifies the bearer token found by JwtAuthenticationConverter, directly on the event loop. parsing the token and checking its HMAC signature never
+blocks and costs well under 100µs of CPU (TokenVerificationBenchmark in the servlet module measures about 11 verifications per millisecond on one core),
+against the tens of milliseconds a BCrypt login takes. handing it to another scheduler would add two thread hops per request and move the same CPU work to a
+pool no larger than the event loop, so unlike the login it is not moved off it. */
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final byte[] SIGNING_KEY = TextCodec.BASE64.decode(SecurityConstants.TOKEN_SECRET);
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+
+        Claims claims;
+        try {
+            claims = Jwts.parser()
+                    .setSigningKey(SIGNING_KEY)
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Mono.error(new BadCredentialsException("Invalid token", e));
+        }
+
+        String user = claims.getSubject();
+        if (user == null)
+            return Mono.error(new BadCredentialsException("Token has no subject"));
+
+        return Mono.just(new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserLoginRequestModel;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/* Reads the {"email": .., "password": ..} body of POST /users/login. the body is joined as it arrives from the connection, so no thread waits on it, and
+joining stops once the body is larger than any login can be. like in the servlet AuthenticationFilter, fields other than email and password are ignored, a body
+that is too large is answered with 413 and one that is missing or is not JSON with 400 : neither is a bad credential. */
+public class LoginAuthenticationConverter implements ServerAuthenticationConverter {
+
+    private static final ObjectReader LOGIN_READER = new ObjectMapper()
+            .readerFor(UserLoginRequestModel.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final int maxRequestBytes;
+
+    public LoginAuthenticationConverter(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getRequest().getBody(), maxRequestBytes)
+                .onErrorMap(DataBufferLimitException.class, e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Login request is larger than " + maxRequestBytes + " bytes", e))
+                .map(body -> {
+                    try (InputStream in = body.asInputStream(true)) {
+                        UserLoginRequestModel credentials = LOGIN_READER.readValue(in);
+                        return (Authentication) new UsernamePasswordAuthenticationToken(credentials.getEmail(), credentials.getPassword());
+                    } catch (IOException e) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid login request", e);
+                    }
+                })
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing login request")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.WebFilterExchange;
+import org.springframework.security.web.server.authentication.ServerAuthenticationSuccessHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/* Answers a successful login with the JWT in the Authorization header and the user's public id in the UserID header, like the servlet
+AuthenticationFilter. the response is completed here, the login request never reaches a controller. */
+public class LoginSuccessHandler implements ServerAuthenticationSuccessHandler {
+
+    private final long expirationMillis;
+
+    public LoginSuccessHandler(long expirationMillis) {
+        this.expirationMillis = expirationMillis;
+    }
+
+    @Override
+    public Mono<Void> onAuthenticationSuccess(WebFilterExchange webFilterExchange, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        String token = Jwts.builder()
+                .setSubject(userPrincipal.getUsername())
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
+                .signWith(SignatureAlgorithm.HS512, SecurityConstants.TOKEN_SECRET)
+                .compact();
+
+        ServerHttpResponse response = webFilterExchange.getExchange().getResponse();
+        response.getHeaders().add(SecurityConstants.HEADER_STRING, SecurityConstants.TOKEN_PREFIX + token);
+        response.getHeaders().add("UserID", userPrincipal.getUserId());
+
+        return response.setComplete();
+    }
+}
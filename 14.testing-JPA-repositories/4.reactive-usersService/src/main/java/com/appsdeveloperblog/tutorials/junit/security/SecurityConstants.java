@@ -0,0 +1,7 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+public class SecurityConstants {
+    public static final String TOKEN_PREFIX = "Bearer ";
+    public static final String HEADER_STRING = "Authorization";
+    public static final String TOKEN_SECRET = "qaWr3Dwa";
+}
@@ -0,0 +1,24 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/* UserDetails returned by UsersService.findByUsername. it also carries the public userId of the user, so that LoginSuccessHandler can issue the token
+and the UserID response header without looking the user up again. */
+public class UserPrincipal extends User {
+
+    private static final long serialVersionUID = 8418353947367164562L;
+
+    private final String userId;
+
+    public UserPrincipal(String userId, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+}
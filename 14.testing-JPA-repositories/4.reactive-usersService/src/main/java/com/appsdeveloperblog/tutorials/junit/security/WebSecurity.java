@@ -0,0 +1,77 @@
+package com.appsdeveloperblog.tutorials.junit.security;
+
+import com.appsdeveloperblog.tutorials.junit.service.UsersService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+@EnableWebFluxSecurity
+public class WebSecurity {
+
+    @Value("${users.security.token.expiration-ms:864000000}")
+    long tokenExpirationMillis;
+
+    @Value("${users.security.login.max-request-bytes:4096}")
+    int maxLoginRequestBytes;
+
+    @Bean
+    public SecurityWebFilterChain configure(ServerHttpSecurity http, UsersService usersService, PasswordEncoder passwordEncoder) {
+
+        http
+                .cors().disable()
+                .csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                .logout().disable()
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange()
+                .pathMatchers(HttpMethod.POST, "/users")
+                .permitAll()
+                .pathMatchers(HttpMethod.POST, "/users/login")
+                .permitAll()
+                .anyExchange().authenticated().and()
+                .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)).and()
+                .addFilterAt(getLoginFilter(usersService, passwordEncoder), SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(getJwtFilter(), SecurityWebFiltersOrder.AUTHENTICATION);
+
+        http.headers().frameOptions().disable();
+
+        return http.build();
+    }
+
+    //the password check runs on the bounded elastic scheduler (the manager's default), keeping BCrypt off the event loop.
+    protected AuthenticationWebFilter getLoginFilter(UsersService usersService, PasswordEncoder passwordEncoder) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(usersService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(authenticationManager);
+        filter.setRequiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/users/login"));
+        filter.setServerAuthenticationConverter(new LoginAuthenticationConverter(maxLoginRequestBytes));
+        filter.setAuthenticationSuccessHandler(new LoginSuccessHandler(tokenExpirationMillis));
+        filter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)));
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        return filter;
+    }
+
+    protected AuthenticationWebFilter getJwtFilter() {
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(new JwtAuthenticationManager());
+        filter.setServerAuthenticationConverter(new JwtAuthenticationConverter());
+        filter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)));
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        return filter;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UsersService extends ReactiveUserDetailsService {
+    Mono<UserDto> createUser(UserDto user);
+    Flux<UserDto> getUsers(int page, int limit);
+    Mono<UserDto> getUser(String email);
+}
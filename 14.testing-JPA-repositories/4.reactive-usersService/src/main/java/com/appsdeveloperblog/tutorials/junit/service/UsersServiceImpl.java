@@ -0,0 +1,83 @@
+package com.appsdeveloperblog.tutorials.junit.service;
+
+import com.appsdeveloperblog.tutorials.junit.exceptions.UsersServiceException;
+import com.appsdeveloperblog.tutorials.junit.io.UsersRepository;
+import com.appsdeveloperblog.tutorials.junit.security.UserPrincipal;
+import com.appsdeveloperblog.tutorials.junit.shared.UserDto;
+import com.appsdeveloperblog.tutorials.junit.shared.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.UUID;
+
+/* Reactive counterpart of the servlet UsersServiceImpl. repository calls never block a thread : they complete when the R2DBC driver answers. BCrypt is
+CPU bound and deliberately slow, so hashing runs on the bounded elastic scheduler instead of the few event loop threads serving every connection. */
+@Service("usersService")
+public class UsersServiceImpl implements UsersService {
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
+    private final UsersRepository usersRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserMapper userMapper = UserMapper.INSTANCE;
+
+    @Autowired
+    public UsersServiceImpl(UsersRepository usersRepository, PasswordEncoder passwordEncoder) {
+        this.usersRepository = usersRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public Mono<UserDto> createUser(UserDto user) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(user.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(encryptedPassword -> {
+                    user.setUserId(UUID.randomUUID().toString());
+                    user.setEncryptedPassword(encryptedPassword);
+                    return usersRepository.save(userMapper.toUserEntity(user));
+                })
+                .onErrorMap(DataIntegrityViolationException.class, e -> isEmailUniqueConstraintViolation(e)
+                        ? new UsersServiceException("Record already exists")
+                        : e)
+                .map(userMapper::toUserDto);
+    }
+
+    @Override
+    public Flux<UserDto> getUsers(int page, int limit) {
+        if (page > 0)
+            page -= 1;
+
+        return usersRepository.findAllBy(PageRequest.of(page, limit, Sort.by("id")))
+                .map(userMapper::toUserDto);
+    }
+
+    @Override
+    public Mono<UserDto> getUser(String email) {
+        return usersRepository.findByEmail(email)
+                .map(userMapper::toUserDto)
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException(email)));
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String email) {
+        return usersRepository.findByEmail(email)
+                .map(userEntity -> (UserDetails) new UserPrincipal(userEntity.getUserId(), userEntity.getEmail(), userEntity.getEncryptedPassword(), new ArrayList<>()))
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException(email)));
+    }
+
+    private static boolean isEmailUniqueConstraintViolation(DataIntegrityViolationException e) {
+        String message = e.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE_CONSTRAINT);
+    }
+}
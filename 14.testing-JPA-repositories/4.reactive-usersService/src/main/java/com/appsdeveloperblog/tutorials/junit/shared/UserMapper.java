@@ -0,0 +1,19 @@
+package com.appsdeveloperblog.tutorials.junit.shared;
+
+import com.appsdeveloperblog.tutorials.junit.io.UserEntity;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+
+/* Maps users between the ui, shared and io layers with plain getters and setters. a single stateless INSTANCE is shared by the controller and the service. */
+public interface UserMapper {
+
+    UserMapper INSTANCE = new UserMapperImpl();
+
+    UserDto toUserDto(UserDetailsRequestModel userDetails);
+
+    UserDto toUserDto(UserEntity userEntity);
+
+    UserEntity toUserEntity(UserDto userDto);
+
+    UserRest toUserRest(UserDto userDto);
+}
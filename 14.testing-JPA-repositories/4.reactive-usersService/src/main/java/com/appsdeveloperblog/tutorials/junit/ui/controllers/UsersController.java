@@ -0,0 +1,40 @@
+package com.appsdeveloperblog.tutorials.junit.ui.controllers;
+
+import com.appsdeveloperblog.tutorials.junit.service.UsersService;
+import com.appsdeveloperblog.tutorials.junit.shared.UserMapper;
+import com.appsdeveloperblog.tutorials.junit.ui.request.UserDetailsRequestModel;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/users")
+public class UsersController {
+
+    UsersService usersService;
+    UserMapper userMapper = UserMapper.INSTANCE;
+
+    @Autowired
+    public UsersController(UsersService usersService) {
+        this.usersService = usersService;
+    }
+
+    @PostMapping
+    public Mono<UserRest> createUser(@RequestBody @Valid Mono<UserDetailsRequestModel> userDetails) {
+        return userDetails
+                .map(userMapper::toUserDto)
+                .flatMap(usersService::createUser)
+                .map(userMapper::toUserRest);
+    }
+
+    @GetMapping
+    public Flux<UserRest> getUsers(@RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam(value = "limit", defaultValue = "2") int limit) {
+        return usersService.getUsers(page, limit)
+                .map(userMapper::toUserRest);
+    }
+}
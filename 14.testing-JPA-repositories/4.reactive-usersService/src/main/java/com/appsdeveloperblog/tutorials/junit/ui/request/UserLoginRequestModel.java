@@ -0,0 +1,22 @@
+package com.appsdeveloperblog.tutorials.junit.ui.request;
+
+public class UserLoginRequestModel {
+    private String email;
+    private String password;
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
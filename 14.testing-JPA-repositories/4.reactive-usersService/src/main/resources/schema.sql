@@ -0,0 +1,10 @@
+create table if not exists users (
+    id bigint auto_increment primary key,
+    user_id varchar(255) not null,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(120) not null,
+    encrypted_password varchar(255) not null,
+    constraint uk_users_user_id unique (user_id),
+    constraint uk_users_email unique (email)
+);
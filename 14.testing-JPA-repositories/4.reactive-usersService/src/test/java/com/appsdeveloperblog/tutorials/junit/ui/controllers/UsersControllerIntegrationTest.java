@@ -0,0 +1,222 @@
+package com.appsdeveloperblog.tutorials.junit.ui.controllers;
+
+import com.appsdeveloperblog.tutorials.junit.security.SecurityConstants;
+import com.appsdeveloperblog.tutorials.junit.ui.response.UserRest;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.impl.TextCodec;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = { "users.security.bcrypt.strength=4", "users.security.token.expiration-ms=60000", "users.security.login.max-request-bytes=256" })
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UsersControllerIntegrationTest {
+
+    @Autowired WebTestClient webTestClient;
+    private String authorizationToken;
+
+    @Order(1)
+    @Test
+    @DisplayName("User can be created")
+    void testCreateUser_whenValidUserDetailsProvided_returnsUserDetails() throws JSONException {
+        // arrange
+        JSONObject userDetailsRequestJson = new JSONObject();
+        userDetailsRequestJson.put("firstName", "kalana");
+        userDetailsRequestJson.put("lastName", "sandakelum");
+        userDetailsRequestJson.put("email", "test@test.com");
+        userDetailsRequestJson.put("password", "12345678");
+        userDetailsRequestJson.put("repeatPassword", "12345678");
+
+        //Act
+        EntityExchangeResult<UserRest> result = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(userDetailsRequestJson.toString())
+                .exchange()
+                .expectBody(UserRest.class)
+                .returnResult();
+        UserRest createUserDetails = result.getResponseBody();
+
+        //Assert
+        assertEquals(HttpStatus.OK, result.getStatus());
+        assertEquals(userDetailsRequestJson.getString("firstName"), createUserDetails.getFirstName(), "returned user's first name seems to be incorrect");
+        assertEquals(userDetailsRequestJson.getString("lastName"), createUserDetails.getLastName(), "returned user's last name seems to be incorrect");
+        assertEquals(userDetailsRequestJson.getString("email"), createUserDetails.getEmail(), "returned user's email seems to be incorrect");
+        assertNotNull(createUserDetails.getUserId(), "returned user should have a userId");
+    }
+
+    @Order(2)
+    @Test
+    @DisplayName("Invalid user details are rejected")
+    void testCreateUser_whenFirstNameTooShort_returns400() throws JSONException {
+        //arrange
+        JSONObject userDetailsRequestJson = new JSONObject();
+        userDetailsRequestJson.put("firstName", "k");
+        userDetailsRequestJson.put("lastName", "sandakelum");
+        userDetailsRequestJson.put("email", "short@test.com");
+        userDetailsRequestJson.put("password", "12345678");
+        userDetailsRequestJson.put("repeatPassword", "12345678");
+
+        //act & assert
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userDetailsRequestJson.toString())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Order(3)
+    @Test
+    @DisplayName("GET /users require JWT")
+    void testGetUsers_whenMissingJWT_returns403() {
+        //act & assert
+        webTestClient.get().uri("/users")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Order(4)
+    @Test
+    @DisplayName("GET /users rejects an invalid JWT")
+    void testGetUsers_whenInvalidJWT_returns403() {
+        //act & assert
+        webTestClient.get().uri("/users")
+                .headers(headers -> headers.setBearerAuth("not-a-jwt"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Order(5)
+    @Test
+    @DisplayName("/login with a wrong password is rejected")
+    void testUserLogin_whenWrongPasswordProvided_returns401() throws JSONException {
+        //arrange
+        JSONObject loginCredentials = new JSONObject();
+        loginCredentials.put("email", "test@test.com");
+        loginCredentials.put("password", "wrong-password");
+
+        //act & assert
+        webTestClient.post().uri("/users/login")
+                .bodyValue(loginCredentials.toString())
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().doesNotExist(SecurityConstants.HEADER_STRING);
+    }
+
+    @Order(6)
+    @Test
+    @DisplayName("/login works")
+    void testUserLogin_whenValidCredentialsProvided_returnsJwtInAuthorizationHeader() throws JSONException {
+        //Arrange :
+        JSONObject loginCredentials = new JSONObject();
+        loginCredentials.put("email", "test@test.com");
+        loginCredentials.put("password", "12345678");
+
+        //Act
+        EntityExchangeResult<Void> response = webTestClient.post().uri("/users/login")
+                .bodyValue(loginCredentials.toString())
+                .exchange()
+                .expectBody().isEmpty();
+        authorizationToken = response.getResponseHeaders().getFirst(SecurityConstants.HEADER_STRING);
+
+        //Assert
+        assertEquals(HttpStatus.OK, response.getStatus(), "http status code should be 200");
+        assertNotNull(authorizationToken, "response should contain Authorization header with JWT");
+        assertNotNull(response.getResponseHeaders().getFirst("UserID"), "response should contain UserID in a response header");
+    }
+
+    @Order(7)
+    @Test
+    @DisplayName("GET /users works")
+    void testGetUsers_whenValidJwtProvided_returnsUsers() {
+        //act
+        EntityExchangeResult<List<UserRest>> responseEntity = webTestClient.get().uri("/users")
+                .header(SecurityConstants.HEADER_STRING, authorizationToken)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBodyList(UserRest.class)
+                .returnResult();
+
+        // assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatus(), "Http status code should be 200");
+        assertEquals(1, responseEntity.getResponseBody().size(), "there should be exactly one user in the list");
+    }
+
+    @Order(8)
+    @Test
+    @DisplayName("JWT expires after the configured time")
+    void testUserLogin_whenValidCredentialsProvided_issuesJwtWithConfiguredExpiry() {
+        //act
+        long expiration = Jwts.parser()
+                .setSigningKey(TextCodec.BASE64.decode(SecurityConstants.TOKEN_SECRET))
+                .parseClaimsJws(authorizationToken.substring(SecurityConstants.TOKEN_PREFIX.length()))
+                .getBody()
+                .getExpiration()
+                .getTime();
+
+        //assert
+        long expiresIn = expiration - System.currentTimeMillis();
+        assertTrue(expiresIn > 0 && expiresIn <= 60000, "token should expire after users.security.token.expiration-ms, expires in " + expiresIn + "ms");
+    }
+
+    @Order(9)
+    @Test
+    @DisplayName("Oversized /login body is rejected with 413")
+    void testUserLogin_whenLoginBodyTooLarge_returns413() throws JSONException {
+        //arrange
+        JSONObject loginCredentials = new JSONObject();
+        loginCredentials.put("email", "test@test.com");
+        loginCredentials.put("password", "x".repeat(512));
+
+        //act & assert
+        webTestClient.post().uri("/users/login")
+                .bodyValue(loginCredentials.toString())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE)
+                .expectHeader().doesNotExist(SecurityConstants.HEADER_STRING);
+    }
+
+    @Order(10)
+    @Test
+    @DisplayName("Malformed /login body is rejected with 400")
+    void testUserLogin_whenLoginBodyIsNotJson_returns400() {
+        //act & assert
+        webTestClient.post().uri("/users/login")
+                .bodyValue("{\"email\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().doesNotExist(SecurityConstants.HEADER_STRING);
+    }
+
+    @Order(11)
+    @Test
+    @DisplayName("/login ignores fields other than email and password")
+    void testUserLogin_whenLoginBodyHasUnknownField_returnsJwtInAuthorizationHeader() throws JSONException {
+        //arrange
+        JSONObject loginCredentials = new JSONObject();
+        loginCredentials.put("email", "test@test.com");
+        loginCredentials.put("password", "12345678");
+        loginCredentials.put("rememberMe", true);
+
+        //act & assert
+        webTestClient.post().uri("/users/login")
+                .bodyValue(loginCredentials.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(SecurityConstants.HEADER_STRING);
+    }
+
+}